@@ -0,0 +1,91 @@
+package org.softuni.cardealer.benchmark;
+
+import org.softuni.cardealer.CardealerApplication;
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.repository.CarRepository;
+import org.softuni.cardealer.repository.PartRepository;
+import org.softuni.cardealer.repository.SupplierRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the whole application against a private in-memory H2 database so
+ * benchmarks exercise the real repositories, services and templates.
+ */
+final class BenchmarkApplication {
+    private static final int SUPPLIERS = 20;
+
+    private static final int PARTS = 200;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        return new SpringApplicationBuilder(CardealerApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=sa",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.level.root=WARN");
+    }
+
+    static void seed(ConfigurableApplicationContext context, int cars, int partsPerCar) {
+        SupplierRepository supplierRepository = context.getBean(SupplierRepository.class);
+        PartRepository partRepository = context.getBean(PartRepository.class);
+        CarRepository carRepository = context.getBean(CarRepository.class);
+
+        List<Supplier> suppliers = new ArrayList<>();
+        for (int i = 0; i < SUPPLIERS; i++) {
+            Supplier supplier = new Supplier();
+            supplier.setName("supplier-" + i);
+            supplier.setIsImporter(i % 2 == 0);
+            suppliers.add(supplier);
+        }
+        suppliers = supplierRepository.saveAll(suppliers);
+
+        List<Part> parts = new ArrayList<>();
+        for (int i = 0; i < PARTS; i++) {
+            Part part = new Part();
+            part.setName("part-" + i);
+            part.setPrice(BigDecimal.valueOf(i + 1, 2));
+            part.setSupplier(suppliers.get(i % SUPPLIERS));
+            parts.add(part);
+        }
+        parts = partRepository.saveAll(parts);
+
+        List<Car> batch = new ArrayList<>();
+        for (int i = 0; i < cars; i++) {
+            Car car = new Car();
+            car.setMake("make-" + (i % 50));
+            car.setModel("model-" + i);
+            car.setTravelledDistance((long) i * 1000);
+
+            List<Part> carParts = new ArrayList<>();
+            for (int j = 0; j < partsPerCar; j++) {
+                carParts.add(parts.get((i + j) % PARTS));
+            }
+            car.setParts(carParts);
+            batch.add(car);
+
+            if (batch.size() == 500) {
+                carRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        carRepository.saveAll(batch);
+    }
+}
@@ -0,0 +1,59 @@
+package org.softuni.cardealer.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.softuni.cardealer.domain.models.service.CarServiceModel;
+import org.softuni.cardealer.domain.models.service.PartServiceModel;
+import org.softuni.cardealer.domain.models.view.PartListViewModel;
+import org.softuni.cardealer.service.CarService;
+import org.softuni.cardealer.service.PartService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FindAllBenchmark {
+
+    @Param({"100", "1000"})
+    public int cars;
+
+    @Param({"10"})
+    public int partsPerCar;
+
+    private ConfigurableApplicationContext context;
+
+    private CarService carService;
+
+    private PartService partService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(this.context, this.cars, this.partsPerCar);
+
+        this.carService = this.context.getBean(CarService.class);
+        this.partService = this.context.getBean(PartService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public List<CarServiceModel> carServiceFindAll() {
+        return this.carService.findAll();
+    }
+
+    @Benchmark
+    public List<PartServiceModel> partServiceFindAll() {
+        return this.partService.findAll();
+    }
+
+    @Benchmark
+    public List<PartListViewModel> partServiceFindAllViews() {
+        return this.partService.findAllViews();
+    }
+}
@@ -0,0 +1,53 @@
+package org.softuni.cardealer.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.softuni.cardealer.domain.models.service.ImportReportServiceModel;
+import org.softuni.cardealer.service.ImportService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV import throughput. Each invocation imports {@value #ROWS} parts, so the
+ * reported operations per second are rows per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ImportBenchmark {
+    private static final int ROWS = 10000;
+
+    private ConfigurableApplicationContext context;
+
+    private ImportService importService;
+
+    private String partsCsv;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(this.context, 0, 0);
+        this.importService = this.context.getBean(ImportService.class);
+
+        StringBuilder csv = new StringBuilder("name,price,supplierName\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("imported-part-").append(i).append(',')
+                    .append(i % 100).append(".99,")
+                    .append("supplier-").append(i % 20).append('\n');
+        }
+        this.partsCsv = csv.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ImportReportServiceModel importParts() throws IOException {
+        return this.importService.importParts(new StringReader(this.partsCsv));
+    }
+}
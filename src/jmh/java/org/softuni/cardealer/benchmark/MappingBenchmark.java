@@ -0,0 +1,89 @@
+package org.softuni.cardealer.benchmark;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.domain.models.service.CarServiceModel;
+import org.softuni.cardealer.mapping.DtoMapper;
+import org.softuni.cardealer.mapping.DtoMappings;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to service model mapping of a car with N parts, comparing the
+ * compiled {@link DtoMapper} with the reflective ModelMapper it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int parts;
+
+    private Car car;
+
+    private CarServiceModel carServiceModel;
+
+    private DtoMapper dtoMapper;
+
+    private ModelMapper modelMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Supplier supplier = new Supplier();
+        supplier.setId(UUID.randomUUID().toString());
+        supplier.setName("supplier");
+        supplier.setIsImporter(true);
+
+        List<Part> carParts = new ArrayList<>();
+        for (int i = 0; i < this.parts; i++) {
+            Part part = new Part();
+            part.setId(UUID.randomUUID().toString());
+            part.setName("part-" + i);
+            part.setPrice(BigDecimal.TEN);
+            part.setSupplier(supplier);
+            carParts.add(part);
+        }
+
+        this.car = new Car();
+        this.car.setId(UUID.randomUUID().toString());
+        this.car.setMake("make");
+        this.car.setModel("model");
+        this.car.setTravelledDistance(1000L);
+        this.car.setParts(carParts);
+
+        this.dtoMapper = DtoMappings.registerAll(new DtoMapper());
+        this.modelMapper = new ModelMapper();
+        this.carServiceModel = this.dtoMapper.map(this.car, CarServiceModel.class);
+
+        this.modelMapper.map(this.car, CarServiceModel.class);
+        this.modelMapper.map(this.carServiceModel, Car.class);
+    }
+
+    @Benchmark
+    public CarServiceModel dtoMapperEntityToServiceModel() {
+        return this.dtoMapper.map(this.car, CarServiceModel.class);
+    }
+
+    @Benchmark
+    public CarServiceModel modelMapperEntityToServiceModel() {
+        return this.modelMapper.map(this.car, CarServiceModel.class);
+    }
+
+    @Benchmark
+    public Car dtoMapperServiceModelToEntity() {
+        return this.dtoMapper.map(this.carServiceModel, Car.class);
+    }
+
+    @Benchmark
+    public Car modelMapperServiceModelToEntity() {
+        return this.modelMapper.map(this.carServiceModel, Car.class);
+    }
+}
@@ -0,0 +1,68 @@
+package org.softuni.cardealer.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.softuni.cardealer.domain.entities.User;
+import org.softuni.cardealer.domain.models.service.UserServiceModel;
+import org.softuni.cardealer.mapping.DtoMapper;
+import org.softuni.cardealer.mapping.DtoMappings;
+import org.softuni.cardealer.repository.UserRepository;
+import org.softuni.cardealer.service.OffloadedPasswordEncoder;
+import org.softuni.cardealer.service.UserService;
+import org.softuni.cardealer.service.UserServiceImpl;
+import org.springframework.security.core.userdetails.cache.NullUserCache;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * BCrypt cost of registration. The repository is stubbed so the numbers
+ * are the hashing work, not database I/O; {@code saveUser} includes the
+ * hand-off to the hashing pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordHashingBenchmark {
+
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    private OffloadedPasswordEncoder passwordEncoder;
+
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.save(any(User.class))).thenAnswer(x -> x.getArgument(0));
+
+        this.bCryptPasswordEncoder = new BCryptPasswordEncoder();
+        this.passwordEncoder = new OffloadedPasswordEncoder(10, 2, 100, new SimpleMeterRegistry());
+        this.userService = new UserServiceImpl(userRepository, DtoMappings.registerAll(new DtoMapper()),
+                this.passwordEncoder, new NullUserCache());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.passwordEncoder.destroy();
+    }
+
+    @Benchmark
+    public String bCryptEncode() {
+        return this.bCryptPasswordEncoder.encode("benchmark-password");
+    }
+
+    @Benchmark
+    public UserServiceModel saveUser() {
+        UserServiceModel user = new UserServiceModel();
+        user.setUsername("benchmark");
+        user.setPassword("benchmark-password");
+        user.setEmail("benchmark@example.com");
+
+        return this.userService.saveUser(user);
+    }
+}
@@ -0,0 +1,129 @@
+package org.softuni.cardealer.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.softuni.cardealer.domain.models.view.CarListViewModel;
+import org.softuni.cardealer.domain.models.view.PartListViewModel;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.WebApplicationContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+
+import javax.servlet.ServletContext;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thymeleaf rendering of the list pages from in-memory projections, so the
+ * numbers isolate template work from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RenderingBenchmark {
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private SpringTemplateEngine templateEngine;
+
+    private ServletContext servletContext;
+
+    private List<CarListViewModel> cars;
+
+    private List<PartListViewModel> parts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkApplication.start();
+        this.templateEngine = this.context.getBean(SpringTemplateEngine.class);
+        this.servletContext = ((WebApplicationContext) this.context).getServletContext();
+
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext()
+                .setAuthentication(new TestingAuthenticationToken("benchmark", null, "ROLE_USER"));
+
+        ProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+
+        this.cars = new ArrayList<>();
+        this.parts = new ArrayList<>();
+        for (int i = 0; i < this.rows; i++) {
+            Map<String, Object> part = new HashMap<>();
+            part.put("id", UUID.randomUUID().toString());
+            part.put("name", "part-" + i);
+            part.put("price", BigDecimal.TEN);
+            part.put("supplierName", "supplier");
+            this.parts.add(projections.createProjection(PartListViewModel.class, part));
+
+            Map<String, Object> car = new HashMap<>();
+            car.put("id", UUID.randomUUID().toString());
+            car.put("make", "make-" + i);
+            car.put("model", "model-" + i);
+            car.put("travelledDistance", (long) i);
+            car.put("price", BigDecimal.TEN);
+            this.cars.add(projections.createProjection(CarListViewModel.class, car));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        this.context.close();
+    }
+
+    @Benchmark
+    public long renderAllCars() {
+        return this.render("all-cars", "cars", this.cars);
+    }
+
+    @Benchmark
+    public long renderAllParts() {
+        return this.render("all-parts", "parts", this.parts);
+    }
+
+    private long render(String template, String name, Object rows) {
+        WebContext webContext = new WebContext(
+                new MockHttpServletRequest(this.servletContext),
+                new MockHttpServletResponse(),
+                this.servletContext,
+                Locale.ENGLISH,
+                Collections.singletonMap(name, rows));
+
+        CountingWriter writer = new CountingWriter();
+        this.templateEngine.process(template, webContext, writer);
+
+        return writer.count;
+    }
+
+    private static class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            this.count += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,20 +1,82 @@
 package org.softuni.cardealer.config;
 
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.softuni.cardealer.domain.identifiers.IdTypeContributor;
+import org.softuni.cardealer.mapping.DtoMapper;
+import org.softuni.cardealer.mapping.DtoMappings;
+import org.softuni.cardealer.metrics.CallMetricsAspect;
+import org.softuni.cardealer.metrics.EntityLoadCounter;
+import org.softuni.cardealer.metrics.StatementBudgetFilter;
+import org.softuni.cardealer.metrics.StatementCounter;
+import org.softuni.cardealer.service.CaffeineUserCache;
+import org.softuni.cardealer.service.OffloadedPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserCache;
+
+import java.time.Duration;
+import java.util.Arrays;
 
 @Configuration
 public class ApplicationBeanConfiguration {
 
     @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+    public OffloadedPasswordEncoder passwordEncoder(@Value("${cardealer.security.bcrypt.strength:10}") int strength,
+                                                    @Value("${cardealer.security.bcrypt.threads:2}") int threads,
+                                                    @Value("${cardealer.security.bcrypt.queue-capacity:100}") int queueCapacity,
+                                                    MeterRegistry meterRegistry) {
+        return new OffloadedPasswordEncoder(strength, threads, queueCapacity, meterRegistry);
+    }
+
+    @Bean
+    public UserCache userCache(@Value("${cardealer.users.cache.ttl-seconds:60}") long timeToLiveSeconds,
+                               @Value("${cardealer.users.cache.max-size:10000}") long maximumSize) {
+        return new CaffeineUserCache(Duration.ofSeconds(timeToLiveSeconds), maximumSize);
+    }
+
+    @Bean
+    public DtoMapper dtoMapper() {
+        return DtoMappings.registerAll(new DtoMapper());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer idTypeCustomizer(@Value("${cardealer.id.binary:false}") boolean binary) {
+        IdTypeContributor idTypeContributor = new IdTypeContributor(binary);
+
+        return properties -> {
+            properties.put(EntityManagerFactoryBuilderImpl.METADATA_BUILDER_CONTRIBUTOR, idTypeContributor);
+            properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> Arrays.asList(idTypeContributor, new EntityLoadCounter()));
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(@Value("${cardealer.sql.budget.statements:50}") int maxStatements,
+                                                                              @Value("${cardealer.sql.budget.rows:1000}") long maxRows,
+                                                                              @Value("${cardealer.sql.budget.repeats:10}") int maxRepeats,
+                                                                              @Value("${cardealer.sql.budget.headers:false}") boolean headers) {
+        FilterRegistrationBean<StatementBudgetFilter> registration =
+                new FilterRegistrationBean<>(new StatementBudgetFilter(maxStatements, maxRows, maxRepeats, headers));
+        // ahead of Spring Security, so the user lookups of a login count towards the request
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+
+        return registration;
     }
 
     @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
+    public CallMetricsAspect callMetricsAspect(MeterRegistry meterRegistry) {
+        return new CallMetricsAspect(meterRegistry);
     }
 }
@@ -0,0 +1,84 @@
+package org.softuni.cardealer.config;
+
+import org.softuni.cardealer.datasource.ReadYourWrites;
+import org.softuni.cardealer.metrics.RequestStatements;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Bounded executors for the kinds of request work that hold a database
+ * connection for a while. Each kind has its own threads and queue, so slow
+ * reports cannot take the threads that serve catalogue pages or bulk
+ * writes. Work beyond a full queue is rejected and answered with 503.
+ * <p>
+ * Together the pools stay below the connection pool size, which leaves
+ * connections for the form posts still handled on servlet threads.
+ */
+@Configuration
+public class AsyncBulkheadConfiguration implements WebMvcConfigurer {
+    public static final String CATALOGUE_READS = "catalogueReadsExecutor";
+
+    public static final String BULK_WRITES = "bulkWritesExecutor";
+
+    public static final String REPORTS = "reportsExecutor";
+
+    private final int catalogueReadThreads;
+    private final int catalogueReadQueueCapacity;
+    private final int bulkWriteThreads;
+    private final int bulkWriteQueueCapacity;
+    private final int reportThreads;
+    private final int reportQueueCapacity;
+
+    public AsyncBulkheadConfiguration(@Value("${cardealer.bulkheads.catalogue-reads.threads:4}") int catalogueReadThreads,
+                                      @Value("${cardealer.bulkheads.catalogue-reads.queue-capacity:100}") int catalogueReadQueueCapacity,
+                                      @Value("${cardealer.bulkheads.bulk-writes.threads:2}") int bulkWriteThreads,
+                                      @Value("${cardealer.bulkheads.bulk-writes.queue-capacity:10}") int bulkWriteQueueCapacity,
+                                      @Value("${cardealer.bulkheads.reports.threads:2}") int reportThreads,
+                                      @Value("${cardealer.bulkheads.reports.queue-capacity:10}") int reportQueueCapacity) {
+        this.catalogueReadThreads = catalogueReadThreads;
+        this.catalogueReadQueueCapacity = catalogueReadQueueCapacity;
+        this.bulkWriteThreads = bulkWriteThreads;
+        this.bulkWriteQueueCapacity = bulkWriteQueueCapacity;
+        this.reportThreads = reportThreads;
+        this.reportQueueCapacity = reportQueueCapacity;
+    }
+
+    @Bean(CATALOGUE_READS)
+    public ThreadPoolTaskExecutor catalogueReadsExecutor() {
+        return bulkhead("catalogue-read-", this.catalogueReadThreads, this.catalogueReadQueueCapacity);
+    }
+
+    @Bean(BULK_WRITES)
+    public ThreadPoolTaskExecutor bulkWritesExecutor() {
+        return bulkhead("bulk-write-", this.bulkWriteThreads, this.bulkWriteQueueCapacity);
+    }
+
+    @Bean(REPORTS)
+    public ThreadPoolTaskExecutor reportsExecutor() {
+        return bulkhead("report-", this.reportThreads, this.reportQueueCapacity);
+    }
+
+    /**
+     * Async results that do not name an executor run on the reports one.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(this.reportsExecutor());
+    }
+
+    private static ThreadPoolTaskExecutor bulkhead(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setTaskDecorator(task -> ReadYourWrites.propagate(RequestStatements.propagate(task)));
+
+        return executor;
+    }
+}
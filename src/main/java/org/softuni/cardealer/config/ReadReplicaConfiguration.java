@@ -0,0 +1,74 @@
+package org.softuni.cardealer.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.softuni.cardealer.datasource.ReadYourWritesFilter;
+import org.softuni.cardealer.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits reads from writes when {@code cardealer.datasource.replica.enabled}
+ * is set. {@code spring.datasource.*} keeps describing the primary, the
+ * replica pool is configured under {@code cardealer.datasource.replica.*}
+ * with Hikari's property names, and read-only transactions are routed to it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cardealer.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+    public static final String PRIMARY = "primaryDataSource";
+
+    public static final String REPLICA = "replicaDataSource";
+
+    @Bean(PRIMARY)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+
+        return dataSource;
+    }
+
+    @Bean(REPLICA)
+    @ConfigurationProperties("cardealer.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+
+        return dataSource;
+    }
+
+    /**
+     * The pools are injected lazily and only opened once this bean exists:
+     * Boot's DataSource initializer asks for it as soon as any DataSource,
+     * including the pools, is created.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Lazy @Qualifier(PRIMARY) DataSource primary, @Lazy @Qualifier(REPLICA) DataSource replica,
+                                @Value("${cardealer.datasource.replica.read-your-writes-ms:5000}") long readYourWritesMillis) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, readYourWritesMillis);
+        routing.afterPropertiesSet();
+
+        // initialized by the container, it opens a connection to read the pool defaults
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(routing);
+
+        return dataSource;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter());
+    }
+}
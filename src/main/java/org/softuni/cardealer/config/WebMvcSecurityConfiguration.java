@@ -19,6 +19,7 @@ public class WebMvcSecurityConfiguration extends WebSecurityConfigurerAdapter {
                 .disable()
                 .authorizeRequests()
                 .antMatchers("/css/**", "/js/**").permitAll()
+                .antMatchers("/actuator/prometheus").access("hasIpAddress('127.0.0.1') or hasIpAddress('::1')")
                 .antMatchers("/", "/users/login", "/users/register").anonymous()
                 .anyRequest().authenticated()
                 .and()
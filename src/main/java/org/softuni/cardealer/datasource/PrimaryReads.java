@@ -0,0 +1,33 @@
+package org.softuni.cardealer.datasource;
+
+/**
+ * Marks work on the current thread whose read-only transactions must still
+ * read from the primary, such as filling a cache keyed by a version that is
+ * bumped once the primary commits. A lagging replica would otherwise store
+ * stale data under the new version, for every session and not just the one
+ * that wrote.
+ */
+public final class PrimaryReads {
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    static boolean active() {
+        return ACTIVE.get() != null;
+    }
+
+    public static void run(Runnable work) {
+        if (active()) {
+            work.run();
+            return;
+        }
+
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            work.run();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.softuni.cardealer.datasource;
+
+import java.io.Serializable;
+
+/**
+ * Binds the write record of the current HTTP session to the thread serving
+ * it, so that read-only transactions can tell whether the session committed
+ * a write the replica might not have applied yet.
+ * <p>
+ * {@link ReadYourWritesFilter} binds the record for the request thread and
+ * {@link #propagate(Runnable)} carries it over to executor threads.
+ */
+public final class ReadYourWrites {
+    private static final ThreadLocal<Writes> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    static Writes current() {
+        return CURRENT.get();
+    }
+
+    static Writes bind(Writes writes) {
+        Writes previous = CURRENT.get();
+        CURRENT.set(writes);
+
+        return previous;
+    }
+
+    static void restore(Writes previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Task decorator for executors that run work on behalf of a request.
+     */
+    public static Runnable propagate(Runnable task) {
+        Writes writes = CURRENT.get();
+        if (writes == null) {
+            return task;
+        }
+
+        return () -> {
+            Writes previous = bind(writes);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    static final class Writes implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private volatile long lastCommitMillis;
+
+        void committed() {
+            this.lastCommitMillis = System.currentTimeMillis();
+        }
+
+        long lastCommitMillis() {
+            return this.lastCommitMillis;
+        }
+
+        boolean committedWithin(long millis) {
+            return System.currentTimeMillis() - this.lastCommitMillis < millis;
+        }
+    }
+}
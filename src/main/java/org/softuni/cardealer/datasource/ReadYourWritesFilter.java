@@ -0,0 +1,75 @@
+package org.softuni.cardealer.datasource;
+
+import org.softuni.cardealer.datasource.ReadYourWrites.Writes;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+
+/**
+ * Keeps the session's write record in the session itself, so it survives
+ * across requests. A request that committed a write sets the record on the
+ * session again once it completes, which is what tells a replicated or
+ * persisted session store to save it, so the record follows the session to
+ * whichever node serves it.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".WRITES";
+
+    private static final String COMMITTED_BEFORE = ReadYourWritesFilter.class.getName() + ".COMMITTED_BEFORE";
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // the async dispatch reuses the record the work on the bulkhead committed to
+        Writes writes = (Writes) request.getAttribute(ATTRIBUTE);
+        if (writes == null) {
+            writes = this.writesOf(request);
+            request.setAttribute(ATTRIBUTE, writes);
+            request.setAttribute(COMMITTED_BEFORE, writes.lastCommitMillis());
+        }
+
+        Writes previous = ReadYourWrites.bind(writes);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.restore(previous);
+        }
+
+        if (!this.isAsyncStarted(request)) {
+            this.storeIfCommitted(request, writes);
+        }
+    }
+
+    private Writes writesOf(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            // no session to be consistent with beyond this request
+            return new Writes();
+        }
+
+        Writes writes = (Writes) session.getAttribute(ATTRIBUTE);
+        if (writes == null) {
+            writes = new Writes();
+            session.setAttribute(ATTRIBUTE, writes);
+        }
+
+        return writes;
+    }
+
+    private void storeIfCommitted(HttpServletRequest request, Writes writes) {
+        HttpSession session = request.getSession(false);
+        if (session != null && writes.lastCommitMillis() != (long) request.getAttribute(COMMITTED_BEFORE)) {
+            session.setAttribute(ATTRIBUTE, writes);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.softuni.cardealer.datasource;
+
+import org.softuni.cardealer.datasource.ReadYourWrites.Writes;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the
+ * primary. A session that committed a write within the last
+ * {@code readYourWritesMillis} keeps reading from the primary, which covers
+ * the replica's lag without pinning the session there for good. Work run
+ * through {@link PrimaryReads} reads from the primary as well.
+ * <p>
+ * The transaction flags are only known once the transaction has begun, so
+ * this has to sit behind a {@code LazyConnectionDataSourceProxy}, which
+ * defers fetching the connection to the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final long readYourWritesMillis;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long readYourWritesMillis) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        targets.put(Route.REPLICA, replica);
+
+        this.setTargetDataSources(targets);
+        this.setDefaultTargetDataSource(primary);
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Route.PRIMARY;
+        }
+
+        Writes writes = ReadYourWrites.current();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (writes != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCommit() {
+                        writes.committed();
+                    }
+                });
+            }
+
+            return Route.PRIMARY;
+        }
+
+        if (PrimaryReads.active()) {
+            return Route.PRIMARY;
+        }
+
+        return writes != null && writes.committedWithin(this.readYourWritesMillis) ? Route.PRIMARY : Route.REPLICA;
+    }
+}
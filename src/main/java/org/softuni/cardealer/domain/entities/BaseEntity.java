@@ -1,6 +1,8 @@
 package org.softuni.cardealer.domain.entities;
 
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
+import org.softuni.cardealer.domain.identifiers.IdTypeContributor;
 
 import javax.persistence.Column;
 import javax.persistence.GeneratedValue;
@@ -16,8 +18,9 @@ public abstract class BaseEntity {
     }
 
     @Id
-    @GeneratedValue(generator = "uuid-string")
-    @GenericGenerator(name = "uuid-string", strategy = "org.hibernate.id.UUIDGenerator")
+    @GeneratedValue(generator = "uuid-time-ordered")
+    @GenericGenerator(name = "uuid-time-ordered", strategy = "org.softuni.cardealer.domain.identifiers.TimeOrderedUuidGenerator")
+    @Type(type = IdTypeContributor.TYPE_NAME)
     @Column(name = "id", nullable = false, unique = true, updatable = false)
     public String getId() {
         return id;
@@ -1,10 +1,16 @@
 package org.softuni.cardealer.domain.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.softuni.cardealer.domain.listeners.SearchIndexListener;
+
 import javax.persistence.*;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "cars")
 public class Car extends BaseEntity {
     private String make;
@@ -13,8 +19,12 @@ public class Car extends BaseEntity {
 
     private Long travelledDistance;
 
+    private BigDecimal price;
+
     private List<Part> parts;
 
+    private boolean priced;
+
     public Car() {
     }
 
@@ -45,12 +55,35 @@ public class Car extends BaseEntity {
         this.travelledDistance = travelledDistance;
     }
 
+    /**
+     * Sum of the parts' prices, kept in step with part price changes so lists
+     * and quotes never have to load the parts.
+     */
+    @Column(name = "car_price", nullable = false, precision = 19, scale = 2)
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    /**
+     * Sets a price the caller already summed from the parts, so that
+     * persisting the car does not load every part to sum it again.
+     */
+    public void setPriceOfParts(BigDecimal price) {
+        this.price = price;
+        this.priced = true;
+    }
+
     @ManyToMany(targetEntity = Part.class, fetch = FetchType.EAGER)
     @JoinTable(
             name = "cars_parts",
             joinColumns = @JoinColumn(name = "car_id", referencedColumnName = "id"),
             inverseJoinColumns = @JoinColumn(name = "part_id", referencedColumnName = "id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "car-parts")
     public List<Part> getParts() {
         return parts;
     }
@@ -58,4 +91,20 @@ public class Car extends BaseEntity {
     public void setParts(List<Part> parts) {
         this.parts = parts;
     }
+
+    @PrePersist
+    protected void calculatePrice() {
+        if (this.priced) {
+            return;
+        }
+
+        BigDecimal price = BigDecimal.ZERO;
+        if (this.parts != null) {
+            for (Part part : this.parts) {
+                price = price.add(part.getPrice());
+            }
+        }
+
+        this.price = price;
+    }
 }
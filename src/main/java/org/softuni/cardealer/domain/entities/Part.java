@@ -1,10 +1,18 @@
 package org.softuni.cardealer.domain.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.softuni.cardealer.domain.listeners.CatalogueChangeListener;
+import org.softuni.cardealer.domain.listeners.SearchIndexListener;
+
 import javax.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
+@EntityListeners({CatalogueChangeListener.class, SearchIndexListener.class})
 @Table(name = "parts")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "parts")
 public class Part extends BaseEntity {
 
     private String name;
@@ -1,12 +1,14 @@
 package org.softuni.cardealer.domain.entities;
 
 import javax.persistence.*;
+import java.time.LocalDate;
 
 @MappedSuperclass
 public abstract class Sale extends BaseEntity {
 
     private Double discount;
     private Customer customer;
+    private LocalDate soldOn;
 
     public Sale() {
     }
@@ -29,4 +31,13 @@ public abstract class Sale extends BaseEntity {
     public void setCustomer(Customer customer) {
         this.customer = customer;
     }
+
+    @Column(name = "sold_on")
+    public LocalDate getSoldOn() {
+        return soldOn;
+    }
+
+    public void setSoldOn(LocalDate soldOn) {
+        this.soldOn = soldOn;
+    }
 }
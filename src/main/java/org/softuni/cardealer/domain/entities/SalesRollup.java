@@ -0,0 +1,62 @@
+package org.softuni.cardealer.domain.entities;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+
+/**
+ * Running sales totals for one customer, part, supplier or day, kept up to
+ * date by every sale so reports never have to aggregate the sales tables.
+ */
+@Entity
+@Table(name = "sales_rollups")
+public class SalesRollup {
+    private SalesRollupKey id;
+
+    private long salesCount;
+
+    private long quantity;
+
+    private BigDecimal revenue;
+
+    public SalesRollup() {
+    }
+
+    @EmbeddedId
+    public SalesRollupKey getId() {
+        return id;
+    }
+
+    public void setId(SalesRollupKey id) {
+        this.id = id;
+    }
+
+    @Column(name = "sales_count", nullable = false)
+    public long getSalesCount() {
+        return salesCount;
+    }
+
+    public void setSalesCount(long salesCount) {
+        this.salesCount = salesCount;
+    }
+
+    @Column(name = "quantity", nullable = false)
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    @Column(name = "revenue", nullable = false, precision = 19, scale = 2)
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
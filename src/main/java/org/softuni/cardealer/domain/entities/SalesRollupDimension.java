@@ -0,0 +1,8 @@
+package org.softuni.cardealer.domain.entities;
+
+public enum SalesRollupDimension {
+    CUSTOMER,
+    PART,
+    SUPPLIER,
+    DAY
+}
@@ -0,0 +1,60 @@
+package org.softuni.cardealer.domain.entities;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class SalesRollupKey implements Serializable {
+    private SalesRollupDimension dimension;
+
+    private String dimensionKey;
+
+    public SalesRollupKey() {
+    }
+
+    public SalesRollupKey(SalesRollupDimension dimension, String dimensionKey) {
+        this.dimension = dimension;
+        this.dimensionKey = dimensionKey;
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", nullable = false, length = 16)
+    public SalesRollupDimension getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(SalesRollupDimension dimension) {
+        this.dimension = dimension;
+    }
+
+    @Column(name = "dimension_key", nullable = false, length = 64)
+    public String getDimensionKey() {
+        return dimensionKey;
+    }
+
+    public void setDimensionKey(String dimensionKey) {
+        this.dimensionKey = dimensionKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SalesRollupKey)) {
+            return false;
+        }
+        SalesRollupKey that = (SalesRollupKey) o;
+
+        return this.dimension == that.dimension && Objects.equals(this.dimensionKey, that.dimensionKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.dimension, this.dimensionKey);
+    }
+}
@@ -1,11 +1,21 @@
 package org.softuni.cardealer.domain.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.softuni.cardealer.domain.listeners.CatalogueChangeListener;
+import org.softuni.cardealer.domain.listeners.SearchIndexListener;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.Table;
 
 @Entity
+@EntityListeners({CatalogueChangeListener.class, SearchIndexListener.class})
 @Table(name = "suppliers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "suppliers")
 public class Supplier extends BaseEntity {
 
     private String name;
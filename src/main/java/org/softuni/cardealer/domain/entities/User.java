@@ -1,15 +1,18 @@
 package org.softuni.cardealer.domain.entities;
 
+import org.softuni.cardealer.domain.listeners.UserCacheListener;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 import java.util.Collection;
 
 @Entity
+@EntityListeners(UserCacheListener.class)
 @Table(name = "users")
 public class User extends BaseEntity implements UserDetails {
     private String username;
@@ -18,6 +21,8 @@ public class User extends BaseEntity implements UserDetails {
 
     private String email;
 
+    private boolean enabled = true;
+
     public User() {
     }
 
@@ -75,8 +80,12 @@ public class User extends BaseEntity implements UserDetails {
     }
 
     @Override
-    @Transient
+    @Column(name = "enabled", nullable = false, columnDefinition = "boolean default true")
     public boolean isEnabled() {
-        return true;
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
     }
 }
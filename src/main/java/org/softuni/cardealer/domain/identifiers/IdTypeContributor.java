@@ -0,0 +1,75 @@
+package org.softuni.cardealer.domain.identifiers;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.engine.spi.Mapping;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.Table;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.StringType;
+import org.hibernate.type.Type;
+
+import java.util.Iterator;
+
+/**
+ * Registers the {@value #TYPE_NAME} type used by entity ids, either as the
+ * plain varchar string type or as {@link UuidStringBinaryType}. In binary mode
+ * it also sizes every id and foreign key column to 16 bytes, which the
+ * {@code @Column} length on {@code BaseEntity} cannot express for both modes.
+ */
+public class IdTypeContributor implements MetadataBuilderContributor, Integrator {
+
+    public static final String TYPE_NAME = "cardealer-id";
+
+    private final boolean binary;
+
+    public IdTypeContributor(boolean binary) {
+        this.binary = binary;
+    }
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applyBasicType(
+                this.binary ? UuidStringBinaryType.INSTANCE : StringType.INSTANCE,
+                TYPE_NAME);
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        if (!this.binary) {
+            return;
+        }
+
+        for (Table table : metadata.collectTableMappings()) {
+            Iterator<?> columns = table.getColumnIterator();
+            while (columns.hasNext()) {
+                Column column = (Column) columns.next();
+                if (isBinaryId(column, (Mapping) metadata)) {
+                    column.setLength(UuidStringBinaryType.LENGTH);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    private static boolean isBinaryId(Column column, Mapping mapping) {
+        if (column.getValue() == null) {
+            return false;
+        }
+
+        Type type = column.getValue().getType();
+        if (type instanceof EntityType) {
+            type = ((EntityType) type).getIdentifierOrUniqueKeyType(mapping);
+        }
+
+        return type instanceof UuidStringBinaryType;
+    }
+}
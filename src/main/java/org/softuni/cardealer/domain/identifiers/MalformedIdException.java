@@ -0,0 +1,12 @@
+package org.softuni.cardealer.domain.identifiers;
+
+/**
+ * Thrown when an id that is not a UUID is bound to a binary id column. No
+ * row can have such an id, so callers treat it like an unknown id.
+ */
+public class MalformedIdException extends IllegalArgumentException {
+
+    public MalformedIdException(String id) {
+        super(String.format("Malformed id '%s'", id));
+    }
+}
@@ -0,0 +1,100 @@
+package org.softuni.cardealer.domain.identifiers;
+
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractTypeDescriptor;
+import org.hibernate.type.descriptor.java.ImmutableMutabilityPlan;
+import org.hibernate.type.descriptor.sql.BinaryTypeDescriptor;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Keeps ids as their canonical UUID strings in Java while storing them as
+ * 16 raw bytes in the database.
+ */
+public class UuidStringBinaryType extends AbstractSingleColumnStandardBasicType<String> {
+
+    public static final int LENGTH = 16;
+
+    public static final UuidStringBinaryType INSTANCE = new UuidStringBinaryType();
+
+    public UuidStringBinaryType() {
+        super(BinaryTypeDescriptor.INSTANCE, UuidStringTypeDescriptor.INSTANCE);
+    }
+
+    @Override
+    public String getName() {
+        return "uuid-string-binary";
+    }
+
+    private static class UuidStringTypeDescriptor extends AbstractTypeDescriptor<String> {
+
+        private static final UuidStringTypeDescriptor INSTANCE = new UuidStringTypeDescriptor();
+
+        @SuppressWarnings("unchecked")
+        private UuidStringTypeDescriptor() {
+            super(String.class, ImmutableMutabilityPlan.INSTANCE);
+        }
+
+        @Override
+        public String toString(String value) {
+            return value;
+        }
+
+        @Override
+        public String fromString(String string) {
+            return string;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+            if (value == null) {
+                return null;
+            }
+
+            if (String.class.isAssignableFrom(type)) {
+                return (X) value;
+            }
+
+            if (byte[].class.isAssignableFrom(type)) {
+                UUID uuid = parse(value);
+
+                return (X) ByteBuffer.allocate(LENGTH)
+                        .putLong(uuid.getMostSignificantBits())
+                        .putLong(uuid.getLeastSignificantBits())
+                        .array();
+            }
+
+            throw unknownUnwrap(type);
+        }
+
+        @Override
+        public <X> String wrap(X value, WrapperOptions options) {
+            if (value == null) {
+                return null;
+            }
+
+            if (value instanceof String) {
+                return (String) value;
+            }
+
+            if (value instanceof byte[]) {
+                ByteBuffer bytes = ByteBuffer.wrap((byte[]) value);
+
+                return new UUID(bytes.getLong(), bytes.getLong()).toString();
+            }
+
+            throw unknownWrap(value.getClass());
+        }
+
+        private static UUID parse(String value) {
+            try {
+                return UUID.fromString(value);
+            } catch (IllegalArgumentException e) {
+                throw new MalformedIdException(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.softuni.cardealer.domain.listeners;
+
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.service.CatalogueVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+@Component
+public class CatalogueChangeListener {
+    private final CatalogueVersions catalogueVersions;
+
+    @Autowired
+    public CatalogueChangeListener(CatalogueVersions catalogueVersions) {
+        this.catalogueVersions = catalogueVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        this.onBulkChange(entity.getClass());
+    }
+
+    /**
+     * For bulk JPQL updates, which bypass the entity lifecycle callbacks.
+     */
+    public void onBulkChange(Class<?> entityClass) {
+        if (Part.class.isAssignableFrom(entityClass)) {
+            this.afterCompletion(this.catalogueVersions::partsChanged);
+        } else if (Supplier.class.isAssignableFrom(entityClass)) {
+            this.afterCompletion(this.catalogueVersions::suppliersChanged);
+        }
+    }
+
+    private void afterCompletion(Runnable bump) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+
+        // bumping before commit would let a concurrent reader cache the old rows under the new version
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                bump.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package org.softuni.cardealer.domain.listeners;
+
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.service.CatalogueSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+@Component
+public class SearchIndexListener {
+    private final CatalogueSearchIndex searchIndex;
+
+    @Autowired
+    public SearchIndexListener(CatalogueSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        // read the fields now, the entity may change again before the commit
+        if (entity instanceof Car) {
+            Car car = (Car) entity;
+            String id = car.getId();
+            String make = car.getMake();
+            String model = car.getModel();
+            this.afterCommit(() -> this.searchIndex.carChanged(id, make, model));
+        } else if (entity instanceof Part) {
+            Part part = (Part) entity;
+            String id = part.getId();
+            String name = part.getName();
+            String supplierId = part.getSupplier().getId();
+            this.afterCommit(() -> this.searchIndex.partChanged(id, name, supplierId));
+        } else if (entity instanceof Supplier) {
+            Supplier supplier = (Supplier) entity;
+            String id = supplier.getId();
+            String name = supplier.getName();
+            this.afterCommit(() -> this.searchIndex.supplierChanged(id, name));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Car) {
+            String id = ((Car) entity).getId();
+            this.afterCommit(() -> this.searchIndex.carRemoved(id));
+        } else if (entity instanceof Part) {
+            String id = ((Part) entity).getId();
+            this.afterCommit(() -> this.searchIndex.partRemoved(id));
+        } else if (entity instanceof Supplier) {
+            String id = ((Supplier) entity).getId();
+            this.afterCommit(() -> this.searchIndex.supplierRemoved(id));
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
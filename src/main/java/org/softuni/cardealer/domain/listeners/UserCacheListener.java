@@ -0,0 +1,45 @@
+package org.softuni.cardealer.domain.listeners;
+
+import org.softuni.cardealer.domain.entities.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Evicts a user from the {@link UserCache} whenever the user is saved or
+ * deleted, however that happens, so a changed password, a disabled account
+ * or a deleted user takes effect on the next login.
+ */
+@Component
+public class UserCacheListener {
+    private final UserCache userCache;
+
+    @Autowired
+    public UserCacheListener(UserCache userCache) {
+        this.userCache = userCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        String username = user.getUsername();
+        this.userCache.removeUserFromCache(username);
+
+        // a login during the transaction may have cached the old state again
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    UserCacheListener.this.userCache.removeUserFromCache(username);
+                }
+            });
+        }
+    }
+}
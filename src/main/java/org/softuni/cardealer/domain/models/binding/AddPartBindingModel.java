@@ -9,6 +9,8 @@ public class AddPartBindingModel {
 
     private String supplier;
 
+    private String supplierId;
+
     public AddPartBindingModel() {
     }
 
@@ -35,4 +37,12 @@ public class AddPartBindingModel {
     public void setSupplier(String supplier) {
         this.supplier = supplier;
     }
+
+    public String getSupplierId() {
+        return this.supplierId;
+    }
+
+    public void setSupplierId(String supplierId) {
+        this.supplierId = supplierId;
+    }
 }
@@ -1,5 +1,6 @@
 package org.softuni.cardealer.domain.models.service;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,6 +11,8 @@ public class CarServiceModel extends BaseServiceModel {
 
     private Long travelledDistance;
 
+    private BigDecimal price;
+
     private List<PartServiceModel> parts;
 
     public CarServiceModel() {
@@ -40,6 +43,14 @@ public class CarServiceModel extends BaseServiceModel {
         this.travelledDistance = travelledDistance;
     }
 
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
     public List<PartServiceModel> getParts() {
         return parts;
     }
@@ -0,0 +1,32 @@
+package org.softuni.cardealer.domain.models.service;
+
+public class ImportErrorServiceModel {
+
+    private long line;
+
+    private String message;
+
+    public ImportErrorServiceModel() {
+    }
+
+    public ImportErrorServiceModel(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,61 @@
+package org.softuni.cardealer.domain.models.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReportServiceModel {
+
+    private long imported;
+
+    private long failed;
+
+    private List<ImportErrorServiceModel> errors;
+
+    private long elapsedMillis;
+
+    private long rowsPerSecond;
+
+    public ImportReportServiceModel() {
+        this.errors = new ArrayList<>();
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<ImportErrorServiceModel> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ImportErrorServiceModel> errors) {
+        this.errors = errors;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
@@ -0,0 +1,49 @@
+package org.softuni.cardealer.domain.models.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class PartRepricingServiceModel {
+    private String supplier;
+
+    private List<String> partIds;
+
+    private BigDecimal percent;
+
+    private BigDecimal amount;
+
+    public PartRepricingServiceModel() {
+    }
+
+    public String getSupplier() {
+        return this.supplier;
+    }
+
+    public void setSupplier(String supplier) {
+        this.supplier = supplier;
+    }
+
+    public List<String> getPartIds() {
+        return this.partIds;
+    }
+
+    public void setPartIds(List<String> partIds) {
+        this.partIds = partIds;
+    }
+
+    public BigDecimal getPercent() {
+        return this.percent;
+    }
+
+    public void setPercent(BigDecimal percent) {
+        this.percent = percent;
+    }
+
+    public BigDecimal getAmount() {
+        return this.amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
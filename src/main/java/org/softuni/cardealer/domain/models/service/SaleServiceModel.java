@@ -1,9 +1,12 @@
 package org.softuni.cardealer.domain.models.service;
 
+import java.time.LocalDate;
+
 public abstract class SaleServiceModel extends BaseServiceModel {
 
     private Double discount;
     private CustomerServiceModel customer;
+    private LocalDate soldOn;
 
     public SaleServiceModel() {
     }
@@ -23,4 +26,12 @@ public abstract class SaleServiceModel extends BaseServiceModel {
     public void setCustomer(CustomerServiceModel customer) {
         this.customer = customer;
     }
+
+    public LocalDate getSoldOn() {
+        return soldOn;
+    }
+
+    public void setSoldOn(LocalDate soldOn) {
+        this.soldOn = soldOn;
+    }
 }
@@ -0,0 +1,59 @@
+package org.softuni.cardealer.domain.models.service;
+
+import java.math.BigDecimal;
+
+public class SalesRollupServiceModel {
+
+    private String dimension;
+
+    private String key;
+
+    private long salesCount;
+
+    private long quantity;
+
+    private BigDecimal revenue;
+
+    public SalesRollupServiceModel() {
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getSalesCount() {
+        return salesCount;
+    }
+
+    public void setSalesCount(long salesCount) {
+        this.salesCount = salesCount;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,15 @@
+package org.softuni.cardealer.domain.models.view;
+
+import java.math.BigDecimal;
+
+public interface CarListViewModel {
+    String getId();
+
+    String getMake();
+
+    String getModel();
+
+    Long getTravelledDistance();
+
+    BigDecimal getPrice();
+}
@@ -0,0 +1,16 @@
+package org.softuni.cardealer.domain.models.view;
+
+import java.time.LocalDate;
+
+public interface CarSaleRollupViewModel {
+
+    String getId();
+
+    String getCustomerId();
+
+    LocalDate getSoldOn();
+
+    Double getDiscount();
+
+    String getCarId();
+}
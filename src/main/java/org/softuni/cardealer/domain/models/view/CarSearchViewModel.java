@@ -0,0 +1,9 @@
+package org.softuni.cardealer.domain.models.view;
+
+public interface CarSearchViewModel {
+    String getId();
+
+    String getMake();
+
+    String getModel();
+}
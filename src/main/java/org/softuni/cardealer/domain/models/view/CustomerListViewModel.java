@@ -0,0 +1,13 @@
+package org.softuni.cardealer.domain.models.view;
+
+import java.time.LocalDate;
+
+public interface CustomerListViewModel {
+    String getId();
+
+    String getName();
+
+    LocalDate getBirthDate();
+
+    boolean getIsYoungDriver();
+}
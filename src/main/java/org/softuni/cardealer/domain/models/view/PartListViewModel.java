@@ -0,0 +1,13 @@
+package org.softuni.cardealer.domain.models.view;
+
+import java.math.BigDecimal;
+
+public interface PartListViewModel {
+    String getId();
+
+    String getName();
+
+    BigDecimal getPrice();
+
+    String getSupplierName();
+}
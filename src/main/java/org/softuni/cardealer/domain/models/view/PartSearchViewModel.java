@@ -0,0 +1,9 @@
+package org.softuni.cardealer.domain.models.view;
+
+public interface PartSearchViewModel {
+    String getId();
+
+    String getName();
+
+    String getSupplierName();
+}
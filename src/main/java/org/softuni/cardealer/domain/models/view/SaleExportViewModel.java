@@ -0,0 +1,20 @@
+package org.softuni.cardealer.domain.models.view;
+
+import java.math.BigDecimal;
+
+public interface SaleExportViewModel {
+
+    String getType();
+
+    String getId();
+
+    String getCustomerName();
+
+    String getItem();
+
+    Integer getQuantity();
+
+    BigDecimal getPrice();
+
+    Double getDiscount();
+}
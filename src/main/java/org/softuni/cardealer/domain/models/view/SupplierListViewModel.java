@@ -0,0 +1,9 @@
+package org.softuni.cardealer.domain.models.view;
+
+public interface SupplierListViewModel {
+    String getId();
+
+    String getName();
+
+    boolean getIsImporter();
+}
@@ -0,0 +1,7 @@
+package org.softuni.cardealer.domain.models.view;
+
+public interface SupplierSuggestionViewModel {
+    String getId();
+
+    String getName();
+}
@@ -0,0 +1,55 @@
+package org.softuni.cardealer.mapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Typed registry of hand-written mappings between binding models, service
+ * models and entities. Lookups are keyed by the runtime source class, so
+ * subclasses (anonymous models, Hibernate proxies) resolve to the mapping
+ * registered for their closest superclass.
+ */
+public class DtoMapper {
+    private final Map<Class<?>, Map<Class<?>, Function<Object, Object>>> mappings = new ConcurrentHashMap<>();
+
+    public <S, D> DtoMapper register(Class<S> sourceType, Class<D> destinationType, Function<S, D> mapping) {
+        this.mappings
+                .computeIfAbsent(sourceType, x -> new ConcurrentHashMap<>())
+                .put(destinationType, source -> mapping.apply(sourceType.cast(source)));
+
+        return this;
+    }
+
+    public <D> D map(Object source, Class<D> destinationType) {
+        if (source == null) {
+            throw new IllegalArgumentException("source cannot be null");
+        }
+
+        return destinationType.cast(this.resolve(source.getClass(), destinationType).apply(source));
+    }
+
+    private Function<Object, Object> resolve(Class<?> sourceType, Class<?> destinationType) {
+        Map<Class<?>, Function<Object, Object>> byDestination = this.mappings.get(sourceType);
+        Function<Object, Object> mapping = byDestination == null ? null : byDestination.get(destinationType);
+        if (mapping != null) {
+            return mapping;
+        }
+
+        for (Class<?> type = sourceType.getSuperclass(); type != null; type = type.getSuperclass()) {
+            byDestination = this.mappings.get(type);
+            mapping = byDestination == null ? null : byDestination.get(destinationType);
+
+            if (mapping != null) {
+                this.mappings
+                        .computeIfAbsent(sourceType, x -> new ConcurrentHashMap<>())
+                        .put(destinationType, mapping);
+
+                return mapping;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("No mapping registered from %s to %s",
+                sourceType.getName(), destinationType.getName()));
+    }
+}
@@ -0,0 +1,284 @@
+package org.softuni.cardealer.mapping;
+
+import org.softuni.cardealer.domain.entities.*;
+import org.softuni.cardealer.domain.models.binding.*;
+import org.softuni.cardealer.domain.models.service.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public final class DtoMappings {
+
+    private DtoMappings() {
+    }
+
+    public static DtoMapper registerAll(DtoMapper mapper) {
+        return mapper
+                .register(AddCarBindingModel.class, CarServiceModel.class, DtoMappings::toCarServiceModel)
+                .register(AddCustomerBindingModel.class, CustomerServiceModel.class, DtoMappings::toCustomerServiceModel)
+                .register(AddPartBindingModel.class, PartServiceModel.class, DtoMappings::toPartServiceModel)
+                .register(AddSupplierBindingModel.class, SupplierServiceModel.class, DtoMappings::toSupplierServiceModel)
+                .register(RegisterUserBindingModel.class, UserServiceModel.class, DtoMappings::toUserServiceModel)
+                .register(RepricePartsBindingModel.class, PartRepricingServiceModel.class, DtoMappings::toPartRepricingServiceModel)
+
+                .register(Car.class, CarServiceModel.class, DtoMappings::toCarServiceModel)
+                .register(CarServiceModel.class, Car.class, DtoMappings::toCar)
+                .register(Customer.class, CustomerServiceModel.class, DtoMappings::toCustomerServiceModel)
+                .register(CustomerServiceModel.class, Customer.class, DtoMappings::toCustomer)
+                .register(Part.class, PartServiceModel.class, DtoMappings::toPartServiceModel)
+                .register(PartServiceModel.class, Part.class, DtoMappings::toPart)
+                .register(Supplier.class, SupplierServiceModel.class, DtoMappings::toSupplierServiceModel)
+                .register(SupplierServiceModel.class, Supplier.class, DtoMappings::toSupplier)
+                .register(User.class, UserServiceModel.class, DtoMappings::toUserServiceModel)
+                .register(UserServiceModel.class, User.class, DtoMappings::toUser)
+                .register(CarSale.class, CarSaleServiceModel.class, DtoMappings::toCarSaleServiceModel)
+                .register(CarSaleServiceModel.class, CarSale.class, DtoMappings::toCarSale)
+                .register(PartSale.class, PartSaleServiceModel.class, DtoMappings::toPartSaleServiceModel)
+                .register(PartSaleServiceModel.class, PartSale.class, DtoMappings::toPartSale)
+                .register(SalesRollup.class, SalesRollupServiceModel.class, DtoMappings::toSalesRollupServiceModel);
+    }
+
+    // Binding models -> service models
+
+    public static CarServiceModel toCarServiceModel(AddCarBindingModel source) {
+        CarServiceModel destination = new CarServiceModel();
+        destination.setMake(source.getMake());
+        destination.setModel(source.getModel());
+        destination.setTravelledDistance(source.getTravelledDistance());
+        destination.setParts(mapList(source.getParts(), x -> {
+            PartServiceModel part = new PartServiceModel();
+            part.setId(x);
+
+            return part;
+        }));
+
+        return destination;
+    }
+
+    public static CustomerServiceModel toCustomerServiceModel(AddCustomerBindingModel source) {
+        CustomerServiceModel destination = new CustomerServiceModel();
+        destination.setName(source.getName());
+        destination.setBirthDate(source.getBirthDate());
+
+        return destination;
+    }
+
+    public static PartServiceModel toPartServiceModel(AddPartBindingModel source) {
+        PartServiceModel destination = new PartServiceModel();
+        destination.setName(source.getName());
+        destination.setPrice(source.getPrice());
+
+        if (source.getSupplier() != null || source.getSupplierId() != null) {
+            SupplierServiceModel supplier = new SupplierServiceModel();
+            supplier.setId(source.getSupplierId());
+            supplier.setName(source.getSupplier());
+            destination.setSupplier(supplier);
+        }
+
+        return destination;
+    }
+
+    public static SupplierServiceModel toSupplierServiceModel(AddSupplierBindingModel source) {
+        SupplierServiceModel destination = new SupplierServiceModel();
+        destination.setName(source.getName());
+        destination.setIsImporter(source.getIsImporter());
+
+        return destination;
+    }
+
+    public static PartRepricingServiceModel toPartRepricingServiceModel(RepricePartsBindingModel source) {
+        PartRepricingServiceModel destination = new PartRepricingServiceModel();
+        destination.setSupplier(source.getSupplier());
+        destination.setPartIds(source.getPartIds());
+        destination.setPercent(source.getPercent());
+        destination.setAmount(source.getAmount());
+
+        return destination;
+    }
+
+    public static UserServiceModel toUserServiceModel(RegisterUserBindingModel source) {
+        UserServiceModel destination = new UserServiceModel();
+        destination.setUsername(source.getUsername());
+        destination.setPassword(source.getPassword());
+        destination.setEmail(source.getEmail());
+
+        return destination;
+    }
+
+    // Entities <-> service models
+
+    public static CarServiceModel toCarServiceModel(Car source) {
+        CarServiceModel destination = new CarServiceModel();
+        destination.setId(source.getId());
+        destination.setMake(source.getMake());
+        destination.setModel(source.getModel());
+        destination.setTravelledDistance(source.getTravelledDistance());
+        destination.setPrice(source.getPrice());
+        destination.setParts(mapList(source.getParts(), DtoMappings::toPartServiceModel));
+
+        return destination;
+    }
+
+    public static Car toCar(CarServiceModel source) {
+        Car destination = new Car();
+        destination.setId(source.getId());
+        destination.setMake(source.getMake());
+        destination.setModel(source.getModel());
+        destination.setTravelledDistance(source.getTravelledDistance());
+        destination.setPrice(source.getPrice());
+        destination.setParts(mapList(source.getParts(), DtoMappings::toPart));
+
+        return destination;
+    }
+
+    public static CustomerServiceModel toCustomerServiceModel(Customer source) {
+        CustomerServiceModel destination = new CustomerServiceModel();
+        destination.setId(source.getId());
+        destination.setName(source.getName());
+        destination.setBirthDate(source.getBirthDate());
+        destination.setIsYoungDriver(source.getIsYoungDriver());
+
+        return destination;
+    }
+
+    public static Customer toCustomer(CustomerServiceModel source) {
+        Customer destination = new Customer();
+        destination.setId(source.getId());
+        destination.setName(source.getName());
+        destination.setBirthDate(source.getBirthDate());
+        destination.setIsYoungDriver(source.getIsYoungDriver());
+
+        return destination;
+    }
+
+    public static PartServiceModel toPartServiceModel(Part source) {
+        PartServiceModel destination = new PartServiceModel();
+        destination.setId(source.getId());
+        destination.setName(source.getName());
+        destination.setPrice(source.getPrice());
+        destination.setSupplier(mapNullable(source.getSupplier(), DtoMappings::toSupplierServiceModel));
+
+        return destination;
+    }
+
+    public static Part toPart(PartServiceModel source) {
+        Part destination = new Part();
+        destination.setId(source.getId());
+        destination.setName(source.getName());
+        destination.setPrice(source.getPrice());
+        destination.setSupplier(mapNullable(source.getSupplier(), DtoMappings::toSupplier));
+
+        return destination;
+    }
+
+    public static SupplierServiceModel toSupplierServiceModel(Supplier source) {
+        SupplierServiceModel destination = new SupplierServiceModel();
+        destination.setId(source.getId());
+        destination.setName(source.getName());
+        destination.setIsImporter(source.getIsImporter());
+
+        return destination;
+    }
+
+    public static Supplier toSupplier(SupplierServiceModel source) {
+        Supplier destination = new Supplier();
+        destination.setId(source.getId());
+        destination.setName(source.getName());
+        destination.setIsImporter(source.getIsImporter());
+
+        return destination;
+    }
+
+    public static UserServiceModel toUserServiceModel(User source) {
+        UserServiceModel destination = new UserServiceModel();
+        destination.setId(source.getId());
+        destination.setUsername(source.getUsername());
+        destination.setPassword(source.getPassword());
+        destination.setEmail(source.getEmail());
+
+        return destination;
+    }
+
+    public static User toUser(UserServiceModel source) {
+        User destination = new User();
+        destination.setId(source.getId());
+        destination.setUsername(source.getUsername());
+        destination.setPassword(source.getPassword());
+        destination.setEmail(source.getEmail());
+
+        return destination;
+    }
+
+    public static CarSaleServiceModel toCarSaleServiceModel(CarSale source) {
+        CarSaleServiceModel destination = new CarSaleServiceModel();
+        destination.setId(source.getId());
+        destination.setDiscount(source.getDiscount());
+        destination.setSoldOn(source.getSoldOn());
+        destination.setCustomer(mapNullable(source.getCustomer(), DtoMappings::toCustomerServiceModel));
+        destination.setCar(mapNullable(source.getCar(), DtoMappings::toCarServiceModel));
+
+        return destination;
+    }
+
+    public static CarSale toCarSale(CarSaleServiceModel source) {
+        CarSale destination = new CarSale();
+        destination.setId(source.getId());
+        destination.setDiscount(source.getDiscount());
+        destination.setSoldOn(source.getSoldOn());
+        destination.setCustomer(mapNullable(source.getCustomer(), DtoMappings::toCustomer));
+        destination.setCar(mapNullable(source.getCar(), DtoMappings::toCar));
+
+        return destination;
+    }
+
+    public static PartSaleServiceModel toPartSaleServiceModel(PartSale source) {
+        PartSaleServiceModel destination = new PartSaleServiceModel();
+        destination.setId(source.getId());
+        destination.setDiscount(source.getDiscount());
+        destination.setSoldOn(source.getSoldOn());
+        destination.setQuantity(source.getQuantity());
+        destination.setCustomer(mapNullable(source.getCustomer(), DtoMappings::toCustomerServiceModel));
+        destination.setPart(mapNullable(source.getPart(), DtoMappings::toPartServiceModel));
+
+        return destination;
+    }
+
+    public static PartSale toPartSale(PartSaleServiceModel source) {
+        PartSale destination = new PartSale();
+        destination.setId(source.getId());
+        destination.setDiscount(source.getDiscount());
+        destination.setSoldOn(source.getSoldOn());
+        destination.setQuantity(source.getQuantity());
+        destination.setCustomer(mapNullable(source.getCustomer(), DtoMappings::toCustomer));
+        destination.setPart(mapNullable(source.getPart(), DtoMappings::toPart));
+
+        return destination;
+    }
+
+    public static SalesRollupServiceModel toSalesRollupServiceModel(SalesRollup source) {
+        SalesRollupServiceModel destination = new SalesRollupServiceModel();
+        destination.setDimension(source.getId().getDimension().name());
+        destination.setKey(source.getId().getDimensionKey());
+        destination.setSalesCount(source.getSalesCount());
+        destination.setQuantity(source.getQuantity());
+        destination.setRevenue(source.getRevenue());
+
+        return destination;
+    }
+
+    private static <S, D> D mapNullable(S source, Function<S, D> mapping) {
+        return source == null ? null : mapping.apply(source);
+    }
+
+    private static <S, D> List<D> mapList(List<S> source, Function<S, D> mapping) {
+        if (source == null) {
+            return new ArrayList<>();
+        }
+
+        return source.stream()
+                .map(mapping)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
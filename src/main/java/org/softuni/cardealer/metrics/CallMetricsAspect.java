@@ -0,0 +1,141 @@
+package org.softuni.cardealer.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every service, repository and DTO mapping call and records how many
+ * entities each one loaded. Both meters are tagged with the layer, the
+ * service or repository interface and the method; mappings are tagged with
+ * their destination type instead, which is what tells them apart.
+ * <p>
+ * Calls returning a {@code Stream} are only timed until the stream is handed
+ * out; the rows it loads are counted by the service call consuming it.
+ */
+@Aspect
+public class CallMetricsAspect {
+    static final String CALLS = "cardealer.calls";
+
+    static final String ENTITIES = "cardealer.calls.entities";
+
+    /**
+     * Fixed buckets for the entity counts; a percentile histogram would
+     * publish hundreds of mostly empty buckets for every call site.
+     */
+    private static final long[] ENTITY_BUCKETS = {1, 10, 100, 1000};
+
+    /**
+     * Bounds of the call duration histograms. Percentile buckets between them
+     * are fine enough to tell which call dominates a request while keeping
+     * each timer to about sixty buckets; the timers are registered once more
+     * for every exception a call site throws.
+     */
+    private static final Duration MIN_DURATION = Duration.ofMillis(1);
+
+    private static final Duration MAX_DURATION = Duration.ofSeconds(10);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, Map<Object, Meters>> meters = new ConcurrentHashMap<>();
+
+    public CallMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* org.softuni.cardealer.service.*Service+.*(..)) && within(org.softuni.cardealer.service..*)")
+    public Object recordService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return this.record("service", joinPoint, ((MethodSignature) joinPoint.getSignature()).getMethod());
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object recordRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return this.record("repository", joinPoint, ((MethodSignature) joinPoint.getSignature()).getMethod());
+    }
+
+    @Around("execution(* org.softuni.cardealer.mapping.DtoMapper.map(..)) && args(*, destinationType)")
+    public Object recordMapping(ProceedingJoinPoint joinPoint, Class<?> destinationType) throws Throwable {
+        return this.record("mapping", joinPoint, destinationType);
+    }
+
+    private Object record(String layer, ProceedingJoinPoint joinPoint, Object method) throws Throwable {
+        Meters meters = this.meters
+                .computeIfAbsent(AopUtils.getTargetClass(joinPoint.getThis()), x -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, x -> this.meters(layer, joinPoint));
+
+        long loadedBefore = EntityLoadCounter.loaded();
+        long start = this.meterRegistry.config().clock().monotonicTime();
+        Timer timer = meters.timer;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            timer = this.timer(meters.tags.and("exception", e.getClass().getSimpleName()));
+            throw e;
+        } finally {
+            timer.record(this.meterRegistry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+            meters.entities.record(EntityLoadCounter.loaded() - loadedBefore);
+        }
+    }
+
+    private Meters meters(String layer, ProceedingJoinPoint joinPoint) {
+        String method = "mapping".equals(layer)
+                ? ((Class<?>) joinPoint.getArgs()[1]).getSimpleName()
+                : joinPoint.getSignature().getName();
+        Tags tags = Tags.of("layer", layer, "type", typeName(AopUtils.getTargetClass(joinPoint.getThis())), "method", method);
+
+        return new Meters(tags, this.timer(tags.and("exception", "none")), DistributionSummary.builder(ENTITIES)
+                .description("Entities loaded per call")
+                .tags(tags)
+                .sla(ENTITY_BUCKETS)
+                .register(this.meterRegistry));
+    }
+
+    private Timer timer(Tags tags) {
+        return Timer.builder(CALLS)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_DURATION)
+                .maximumExpectedValue(MAX_DURATION)
+                .register(this.meterRegistry);
+    }
+
+    /**
+     * The application interface a bean implements, which names services and
+     * repositories the same way the code does instead of by their proxy or
+     * implementation class.
+     */
+    private static String typeName(Class<?> type) {
+        for (Class<?> candidate : type.getInterfaces()) {
+            if (candidate.getName().startsWith("org.softuni.cardealer.")) {
+                return candidate.getSimpleName();
+            }
+        }
+
+        return type.getSimpleName();
+    }
+
+    private static final class Meters {
+        private final Tags tags;
+
+        private final Timer timer;
+
+        private final DistributionSummary entities;
+
+        private Meters(Tags tags, Timer timer, DistributionSummary entities) {
+            this.tags = tags;
+            this.timer = timer;
+            this.entities = entities;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.softuni.cardealer.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Counts the entities Hibernate materializes on each thread, eager
+ * associations and second-level cache hits included, so a caller can tell
+ * how many entities a call loaded by reading the count before and after.
+ */
+public class EntityLoadCounter implements Integrator, PostLoadEventListener {
+    private static final ThreadLocal<long[]> LOADED = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static long loaded() {
+        return LOADED.get()[0];
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        LOADED.get()[0]++;
+
+        RequestStatements statements = RequestStatements.current();
+        if (statements != null) {
+            statements.loaded();
+        }
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        serviceRegistry.getService(EventListenerRegistry.class).appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
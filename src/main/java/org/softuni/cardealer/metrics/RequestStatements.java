@@ -0,0 +1,128 @@
+package org.softuni.cardealer.metrics;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The SQL statements Hibernate ran and the entity rows it loaded on behalf
+ * of one request, whichever threads did the work.
+ * <p>
+ * {@link StatementBudgetFilter} binds the record for the request thread and
+ * {@link #propagate(Runnable)} carries it over to executor threads.
+ */
+public final class RequestStatements {
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern PARAMETER_LISTS = Pattern.compile("\\(\\?(?:\\s*,\\s*\\?)+\\)");
+
+    private final Map<String, Integer> executed = new HashMap<>();
+
+    private int statements;
+
+    private long rows;
+
+    /**
+     * Runs the work outside of any request and returns what it executed.
+     */
+    public static RequestStatements during(Runnable work) {
+        RequestStatements statements = new RequestStatements();
+        RequestStatements previous = bind(statements);
+        try {
+            work.run();
+        } finally {
+            restore(previous);
+        }
+
+        return statements;
+    }
+
+    public synchronized int statements() {
+        return this.statements;
+    }
+
+    public synchronized long rows() {
+        return this.rows;
+    }
+
+    /**
+     * How often each statement shape ran, most repeated first. Statements
+     * differing only in literals or in the length of a parameter list share
+     * a shape, so one shape running many times points at an N+1 pattern.
+     */
+    public synchronized Map<String, Integer> shapes() {
+        Map<String, Integer> shapes = new HashMap<>();
+        this.executed.forEach((sql, count) -> shapes.merge(shape(sql), count, Integer::sum));
+
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+
+        return sorted;
+    }
+
+    public int maxRepeats() {
+        return this.shapes().values().stream().findFirst().orElse(0);
+    }
+
+    synchronized void executed(String sql) {
+        // Hibernate reuses the same SQL string per query, so shapes are only worked out when asked for
+        this.executed.merge(sql, 1, Integer::sum);
+        this.statements++;
+    }
+
+    synchronized void loaded() {
+        this.rows++;
+    }
+
+    static RequestStatements current() {
+        return CURRENT.get();
+    }
+
+    static RequestStatements bind(RequestStatements statements) {
+        RequestStatements previous = CURRENT.get();
+        CURRENT.set(statements);
+
+        return previous;
+    }
+
+    static void restore(RequestStatements previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Task decorator for executors that run work on behalf of a request.
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestStatements statements = CURRENT.get();
+        if (statements == null) {
+            return task;
+        }
+
+        return () -> {
+            RequestStatements previous = bind(statements);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = LITERALS.matcher(shape).replaceAll("?");
+
+        return PARAMETER_LISTS.matcher(shape).replaceAll("(?...)");
+    }
+}
@@ -0,0 +1,115 @@
+package org.softuni.cardealer.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements and entity rows each request costs and logs the
+ * requests going over budget together with their most repeated statement
+ * shapes. Optionally reports the counts in response headers, which buffers
+ * the response body and is meant for development only.
+ * <p>
+ * The record is kept as a request attribute, so asynchronous requests are
+ * reported once their async dispatch completes.
+ */
+public class StatementBudgetFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS = StatementBudgetFilter.class.getName() + ".STATEMENTS";
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementBudgetFilter.class);
+
+    private static final int REPORTED_SHAPES = 5;
+
+    private final int maxStatements;
+
+    private final long maxRows;
+
+    private final int maxRepeats;
+
+    private final boolean headers;
+
+    public StatementBudgetFilter(int maxStatements, long maxRows, int maxRepeats, boolean headers) {
+        this.maxStatements = maxStatements;
+        this.maxRows = maxRows;
+        this.maxRepeats = maxRepeats;
+        this.headers = headers;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestStatements statements = (RequestStatements) request.getAttribute(STATEMENTS);
+        if (statements == null) {
+            statements = new RequestStatements();
+            request.setAttribute(STATEMENTS, statements);
+        }
+
+        HttpServletResponse filteredResponse = response;
+        if (this.headers && WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) == null) {
+            filteredResponse = new ContentCachingResponseWrapper(response);
+        }
+
+        RequestStatements previous = RequestStatements.bind(statements);
+        try {
+            filterChain.doFilter(request, filteredResponse);
+        } finally {
+            RequestStatements.restore(previous);
+        }
+
+        if (this.isAsyncStarted(request)) {
+            return;
+        }
+
+        this.report(request, statements);
+        if (this.headers) {
+            ContentCachingResponseWrapper buffered =
+                    WebUtils.getNativeResponse(filteredResponse, ContentCachingResponseWrapper.class);
+            if (!buffered.isCommitted()) {
+                buffered.setHeader(STATEMENTS_HEADER, String.valueOf(statements.statements()));
+                buffered.setHeader(ROWS_HEADER, String.valueOf(statements.rows()));
+            }
+            buffered.copyBodyToResponse();
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestStatements statements) {
+        if (!LOGGER.isWarnEnabled() || statements.statements() == 0) {
+            return;
+        }
+
+        Map<String, Integer> shapes = statements.shapes();
+        int maxRepeats = shapes.values().iterator().next();
+        if (statements.statements() <= this.maxStatements && statements.rows() <= this.maxRows
+                && maxRepeats < this.maxRepeats) {
+            return;
+        }
+
+        String offenders = shapes.entrySet().stream()
+                .limit(REPORTED_SHAPES)
+                .map(e -> "  " + e.getValue() + "x " + e.getKey())
+                .collect(Collectors.joining(System.lineSeparator()));
+
+        LOGGER.warn("{} {} ran {} SQL statements and loaded {} rows (budget {} statements, {} rows, {} repeats):{}{}",
+                request.getMethod(), request.getRequestURI(), statements.statements(), statements.rows(),
+                this.maxStatements, this.maxRows, this.maxRepeats, System.lineSeparator(), offenders);
+    }
+}
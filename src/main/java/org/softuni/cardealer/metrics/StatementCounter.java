@@ -0,0 +1,21 @@
+package org.softuni.cardealer.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares against the request being
+ * served, leaving the SQL itself unchanged.
+ */
+public class StatementCounter implements StatementInspector {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String inspect(String sql) {
+        RequestStatements statements = RequestStatements.current();
+        if (statements != null) {
+            statements.executed(sql);
+        }
+
+        return sql;
+    }
+}
@@ -1,9 +1,35 @@
 package org.softuni.cardealer.repository;
 
 import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.models.view.CarListViewModel;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, String> {
+public interface CarRepository extends JpaRepository<Car, String>, CarRepositoryCustom {
+
+    @Transactional(readOnly = true)
+    @Query("SELECT c.id AS id, c.make AS make, c.model AS model, c.travelledDistance AS travelledDistance, " +
+            "c.price AS price " +
+            "FROM Car c " +
+            "ORDER BY c.make, c.id")
+    List<CarListViewModel> findFirstPage(Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT c.id AS id, c.make AS make, c.model AS model, c.travelledDistance AS travelledDistance, " +
+            "c.price AS price " +
+            "FROM Car c " +
+            "WHERE c.make > :make OR (c.make = :make AND c.id > :id) " +
+            "ORDER BY c.make, c.id")
+    List<CarListViewModel> findPageAfter(@Param("make") String make, @Param("id") String id, Pageable pageable);
+
+    @Query("SELECT DISTINCT c FROM Car c LEFT JOIN FETCH c.parts p LEFT JOIN FETCH p.supplier WHERE c.id IN :ids")
+    List<Car> findAllWithPartsByIdIn(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,14 @@
+package org.softuni.cardealer.repository;
+
+import java.util.Collection;
+
+public interface CarRepositoryCustom {
+
+    int deletePartFromCars(String partId);
+
+    int refreshPricesOfCarsWithPart(String partId);
+
+    int refreshPricesOfCarsWithParts(Collection<String> partIds);
+
+    int refreshPricesOfCarsWithPartsOfSupplier(String supplierId);
+}
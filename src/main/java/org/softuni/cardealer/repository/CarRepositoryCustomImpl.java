@@ -0,0 +1,114 @@
+package org.softuni.cardealer.repository;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.Type;
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.Part;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+
+/**
+ * Set-based statements over the {@code cars_parts} join table. Part ids are
+ * bound with the mapped id type, so the statements work whether ids are
+ * stored as strings or as binary UUIDs.
+ */
+public class CarRepositoryCustomImpl implements CarRepositoryCustom {
+    private static final String CARS_WITH_PART = "WHERE id IN (SELECT car_id FROM cars_parts WHERE part_id = :partId)";
+
+    private static final String REFRESH_PRICES = "UPDATE cars SET car_price = " +
+            "(SELECT COALESCE(SUM(p.price), 0) FROM cars_parts cp JOIN parts p ON p.id = cp.part_id " +
+            "WHERE cp.car_id = cars.id) ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int deletePartFromCars(String partId) {
+        SessionImplementor session = this.entityManager.unwrap(SessionImplementor.class);
+        session.flush();
+
+        this.createQuery(session, "UPDATE cars SET car_price = " +
+                "(SELECT COALESCE(SUM(p.price), 0) FROM cars_parts cp JOIN parts p ON p.id = cp.part_id " +
+                "WHERE cp.car_id = cars.id AND cp.part_id <> :partId) " + CARS_WITH_PART, partId)
+                .addSynchronizedEntityClass(Car.class)
+                .executeUpdate();
+
+        int deleted = this.createQuery(session, "DELETE FROM cars_parts WHERE part_id = :partId", partId)
+                .addSynchronizedQuerySpace("cars_parts")
+                .executeUpdate();
+        session.clear();
+
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public int refreshPricesOfCarsWithPart(String partId) {
+        SessionImplementor session = this.entityManager.unwrap(SessionImplementor.class);
+        session.flush();
+
+        int updated = this.createQuery(session, REFRESH_PRICES + CARS_WITH_PART, partId)
+                .addSynchronizedEntityClass(Car.class)
+                .executeUpdate();
+        session.clear();
+
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int refreshPricesOfCarsWithParts(Collection<String> partIds) {
+        if (partIds.isEmpty()) {
+            return 0;
+        }
+
+        SessionImplementor session = this.entityManager.unwrap(SessionImplementor.class);
+        session.flush();
+
+        NativeQuery<?> query = session.createNativeQuery(REFRESH_PRICES +
+                "WHERE id IN (SELECT car_id FROM cars_parts WHERE part_id IN (:partIds))");
+        query.setParameterList("partIds", partIds, idType(session));
+        int updated = query
+                .addSynchronizedEntityClass(Car.class)
+                .executeUpdate();
+        session.clear();
+
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int refreshPricesOfCarsWithPartsOfSupplier(String supplierId) {
+        SessionImplementor session = this.entityManager.unwrap(SessionImplementor.class);
+        session.flush();
+
+        NativeQuery<?> query = session.createNativeQuery(REFRESH_PRICES + "WHERE id IN (SELECT cp.car_id " +
+                "FROM cars_parts cp JOIN parts p ON p.id = cp.part_id WHERE p.supplier_id = :supplierId)");
+        query.setParameter("supplierId", supplierId, idType(session));
+        int updated = query
+                .addSynchronizedEntityClass(Car.class)
+                .executeUpdate();
+        session.clear();
+
+        return updated;
+    }
+
+    private NativeQuery<?> createQuery(SessionImplementor session, String sql, String partId) {
+        NativeQuery<?> query = session.createNativeQuery(sql);
+        query.setParameter("partId", partId, idType(session));
+
+        return query;
+    }
+
+    private static Type idType(SessionImplementor session) {
+        return session.getFactory()
+                .getMetamodel()
+                .entityPersister(Part.class)
+                .getIdentifierType();
+    }
+}
@@ -1,9 +1,34 @@
 package org.softuni.cardealer.repository;
 
 import org.softuni.cardealer.domain.entities.CarSale;
+import org.softuni.cardealer.domain.models.view.CarSaleRollupViewModel;
+import org.softuni.cardealer.domain.models.view.SaleExportViewModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface CarSaleRepository extends JpaRepository<CarSale, String> {
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT 'car' AS type, s.id AS id, cu.name AS customerName, CONCAT(c.make, ' ', c.model) AS item, " +
+            "1 AS quantity, c.price AS price, " +
+            "s.discount AS discount " +
+            "FROM CarSale s LEFT JOIN s.customer cu LEFT JOIN s.car c")
+    Stream<SaleExportViewModel> streamAllExportViews();
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s.id AS id, cu.id AS customerId, s.soldOn AS soldOn, s.discount AS discount, c.id AS carId " +
+            "FROM CarSale s LEFT JOIN s.customer cu LEFT JOIN s.car c")
+    Stream<CarSaleRollupViewModel> streamAllRollupViews();
+
+    @Query("SELECT s.id FROM CarSale s WHERE s.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
 }
@@ -1,9 +1,14 @@
 package org.softuni.cardealer.repository;
 
 import org.softuni.cardealer.domain.entities.Customer;
+import org.softuni.cardealer.domain.models.view.CustomerListViewModel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, String> {
+
+    List<CustomerListViewModel> findAllViewsBy();
 }
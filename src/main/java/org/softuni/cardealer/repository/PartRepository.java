@@ -1,9 +1,46 @@
 package org.softuni.cardealer.repository;
 
 import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.models.view.PartListViewModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface PartRepository extends JpaRepository<Part, String> {
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Part p JOIN FETCH p.supplier")
+    Stream<Part> streamAll();
+
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, s.name AS supplierName " +
+            "FROM Part p JOIN p.supplier s")
+    List<PartListViewModel> findAllViews();
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Part p SET p.price = ROUND(p.price * :factor, 2) WHERE p.supplier.id = :supplierId")
+    int multiplyPricesOfSupplier(@Param("supplierId") String supplierId, @Param("factor") BigDecimal factor);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Part p SET p.price = CASE WHEN p.price + :amount < 0 THEN 0 ELSE (p.price + :amount) END " +
+            "WHERE p.supplier.id = :supplierId")
+    int addToPricesOfSupplier(@Param("supplierId") String supplierId, @Param("amount") BigDecimal amount);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Part p SET p.price = ROUND(p.price * :factor, 2) WHERE p.id IN :ids")
+    int multiplyPrices(@Param("ids") Collection<String> ids, @Param("factor") BigDecimal factor);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Part p SET p.price = CASE WHEN p.price + :amount < 0 THEN 0 ELSE (p.price + :amount) END " +
+            "WHERE p.id IN :ids")
+    int addToPrices(@Param("ids") Collection<String> ids, @Param("amount") BigDecimal amount);
 }
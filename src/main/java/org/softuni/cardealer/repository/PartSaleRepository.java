@@ -1,9 +1,31 @@
 package org.softuni.cardealer.repository;
 
 import org.softuni.cardealer.domain.entities.PartSale;
+import org.softuni.cardealer.domain.models.view.SaleExportViewModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface PartSaleRepository extends JpaRepository<PartSale, String> {
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT 'part' AS type, s.id AS id, cu.name AS customerName, p.name AS item, " +
+            "s.quantity AS quantity, p.price AS price, s.discount AS discount " +
+            "FROM PartSale s LEFT JOIN s.customer cu LEFT JOIN s.part p")
+    Stream<SaleExportViewModel> streamAllExportViews();
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM PartSale s LEFT JOIN FETCH s.part p LEFT JOIN FETCH p.supplier LEFT JOIN FETCH s.customer")
+    Stream<PartSale> streamAll();
+
+    @Query("SELECT s.id FROM PartSale s WHERE s.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,21 @@
+package org.softuni.cardealer.repository;
+
+import org.softuni.cardealer.domain.entities.SalesRollup;
+import org.softuni.cardealer.domain.entities.SalesRollupDimension;
+import org.softuni.cardealer.domain.entities.SalesRollupKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollupKey>, SalesRollupRepositoryCustom {
+
+    List<SalesRollup> findAllByIdDimensionOrderByRevenueDesc(SalesRollupDimension dimension);
+
+    @Modifying
+    @Query("DELETE FROM SalesRollup")
+    int deleteAllInBulk();
+}
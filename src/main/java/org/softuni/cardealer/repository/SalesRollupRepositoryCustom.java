@@ -0,0 +1,8 @@
+package org.softuni.cardealer.repository;
+
+import org.softuni.cardealer.domain.entities.SalesRollup;
+
+public interface SalesRollupRepositoryCustom {
+
+    void increment(SalesRollup delta);
+}
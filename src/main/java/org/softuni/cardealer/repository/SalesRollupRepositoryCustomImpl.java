@@ -0,0 +1,40 @@
+package org.softuni.cardealer.repository;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.softuni.cardealer.domain.entities.SalesRollup;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Adds a sale's contribution to its rollup row with a single upsert in the
+ * caller's transaction, creating the row for the first sale of a key. An
+ * update that finds no row followed by an insert would take a gap lock on
+ * MySQL that a second connection's insert then waits on.
+ */
+public class SalesRollupRepositoryCustomImpl implements SalesRollupRepositoryCustom {
+    private static final String UPSERT = "INSERT INTO sales_rollups " +
+            "(dimension, dimension_key, sales_count, quantity, revenue) " +
+            "VALUES (:dimension, :dimensionKey, :salesCount, :quantity, :revenue) " +
+            "ON DUPLICATE KEY UPDATE sales_count = sales_count + VALUES(sales_count), " +
+            "quantity = quantity + VALUES(quantity), revenue = revenue + VALUES(revenue)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void increment(SalesRollup delta) {
+        this.entityManager.unwrap(SessionImplementor.class)
+                .createNativeQuery(UPSERT)
+                .setParameter("dimension", delta.getId().getDimension().name())
+                .setParameter("dimensionKey", delta.getId().getDimensionKey())
+                .setParameter("salesCount", delta.getSalesCount())
+                .setParameter("quantity", delta.getQuantity())
+                .setParameter("revenue", delta.getRevenue())
+                .addSynchronizedEntityClass(SalesRollup.class)
+                .executeUpdate();
+    }
+}
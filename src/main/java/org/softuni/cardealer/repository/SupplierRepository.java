@@ -1,12 +1,26 @@
 package org.softuni.cardealer.repository;
 
 import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.domain.models.view.SupplierListViewModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SupplierRepository extends JpaRepository<Supplier, String> {
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
     Optional<Supplier> findByName(String name);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM Supplier s")
+    Stream<Supplier> streamAll();
+
+    List<SupplierListViewModel> findAllViewsBy();
 }
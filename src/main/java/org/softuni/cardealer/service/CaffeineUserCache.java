@@ -0,0 +1,54 @@
+package org.softuni.cardealer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+
+/**
+ * Size-bounded {@link UserCache} whose entries expire a fixed time after
+ * they were loaded. Cached users are immutable snapshots, and every lookup
+ * hands out a copy, so erasing the credentials of an authenticated
+ * principal never reaches the cached entry.
+ * <p>
+ * Changed and deleted users are evicted as they are saved, and the time to
+ * live is capped at {@link #MAX_TIME_TO_LIVE} for changes made outside this
+ * application.
+ */
+public class CaffeineUserCache implements UserCache {
+    public static final Duration MAX_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    private final Cache<String, UserDetails> users;
+
+    public CaffeineUserCache(Duration timeToLive, long maximumSize) {
+        if (timeToLive.isNegative() || timeToLive.compareTo(MAX_TIME_TO_LIVE) > 0) {
+            throw new IllegalArgumentException(String.format(
+                    "User cache time to live must be between 0 and %d seconds", MAX_TIME_TO_LIVE.getSeconds()));
+        }
+
+        this.users = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails user = this.users.getIfPresent(username);
+
+        return user == null ? null : User.withUserDetails(user).build();
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        this.users.put(user.getUsername(), User.withUserDetails(user).build());
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        this.users.invalidate(username);
+    }
+}
@@ -1,7 +1,10 @@
 package org.softuni.cardealer.service;
 
 import org.softuni.cardealer.domain.models.service.CarServiceModel;
+import org.softuni.cardealer.domain.models.view.CarListViewModel;
+import org.softuni.cardealer.domain.models.view.CarSearchViewModel;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CarService {
@@ -16,5 +19,17 @@ public interface CarService {
 
     List<CarServiceModel> findAll();
 
-    void deletePartFromCars(String partId);
+    List<CarListViewModel> findPage(String afterMake, String afterId, int size);
+
+    Iterable<CarListViewModel> findAllInChunks();
+
+    List<CarSearchViewModel> searchCars(String query, int limit);
+
+    int deletePartFromCars(String partId);
+
+    int refreshPricesOfCarsWithPart(String partId);
+
+    int refreshPricesOfCarsWithParts(Collection<String> partIds);
+
+    int refreshPricesOfCarsWithPartsOfSupplier(String supplierId);
 }
@@ -1,41 +1,68 @@
 package org.softuni.cardealer.service;
 
-import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.softuni.cardealer.domain.entities.Car;
 import org.softuni.cardealer.domain.entities.Part;
 import org.softuni.cardealer.domain.models.service.CarServiceModel;
+import org.softuni.cardealer.domain.models.service.PartServiceModel;
+import org.softuni.cardealer.domain.models.view.CarListViewModel;
+import org.softuni.cardealer.domain.models.view.CarSearchViewModel;
+import org.softuni.cardealer.mapping.DtoMapper;
 import org.softuni.cardealer.repository.CarRepository;
 import org.softuni.cardealer.repository.PartRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class CarServiceImpl implements CarService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CarServiceImpl.class);
+
     private final CarRepository carRepository;
 
     private final PartRepository partRepository;
 
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
+
+    private final CatalogueSearchIndex searchIndex;
+
+    private final int chunkSize;
+
+    private final int partsBatchSize;
 
     @Autowired
-    public CarServiceImpl(CarRepository carRepository, PartRepository partRepository, ModelMapper modelMapper) {
+    public CarServiceImpl(CarRepository carRepository, PartRepository partRepository, DtoMapper dtoMapper,
+                          CatalogueSearchIndex searchIndex,
+                          @Value("${cardealer.cars.chunk-size:500}") int chunkSize,
+                          @Value("${cardealer.parts.batch-size:100}") int partsBatchSize) {
         this.carRepository = carRepository;
         this.partRepository = partRepository;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.searchIndex = searchIndex;
+        this.chunkSize = chunkSize;
+        this.partsBatchSize = partsBatchSize;
     }
 
     @Override
     public CarServiceModel saveCar(CarServiceModel carServiceModel) {
-        Car car = this.modelMapper.map(carServiceModel, Car.class);
-        car.setParts(carServiceModel.getParts().stream()
-                .map(x -> this.partRepository.findById(x.getId()).orElse(null))
-                .collect(Collectors.toList()));
+        Car car = this.dtoMapper.map(carServiceModel, Car.class);
+        car.setParts(this.findPartsByIds(carServiceModel.getParts().stream()
+                .map(PartServiceModel::getId)
+                .collect(Collectors.toList())));
         car = this.carRepository.saveAndFlush(car);
 
-        return this.modelMapper.map(car, CarServiceModel.class);
+        return this.dtoMapper.map(car, CarServiceModel.class);
 
     }
 
@@ -48,7 +75,7 @@ public class CarServiceImpl implements CarService {
 
         car = this.carRepository.saveAndFlush(car);
 
-        return this.modelMapper.map(car, CarServiceModel.class);
+        return this.dtoMapper.map(car, CarServiceModel.class);
 
     }
 
@@ -58,35 +85,98 @@ public class CarServiceImpl implements CarService {
 
         this.carRepository.delete(car);
 
-        return this.modelMapper.map(car, CarServiceModel.class);
+        return this.dtoMapper.map(car, CarServiceModel.class);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CarServiceModel findCarById(String id) {
         Car car = this.carRepository.findById(id).orElse(null);
 
-        return this.modelMapper.map(car, CarServiceModel.class);
+        return this.dtoMapper.map(car, CarServiceModel.class);
 
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarServiceModel> findAll() {
         return this.carRepository.findAll()
                 .stream()
-                .map(x -> this.modelMapper.map(x, CarServiceModel.class))
+                .map(x -> this.dtoMapper.map(x, CarServiceModel.class))
                 .collect(Collectors.toList());
     }
 
     @Override
-    public void deletePartFromCars(String partId) {
-        this.carRepository.findAll()
-                .stream()
-                .filter(x -> x.getParts().stream().anyMatch(y -> y.getId().equals(partId)))
-                .forEach((x) -> {
-                    List<Part> carParts = x.getParts();
-                    carParts.removeIf(y -> y.getId().equals(partId));
-                    x.setParts(carParts);
-                    this.carRepository.saveAndFlush(x);
-                });
+    @Transactional(readOnly = true)
+    public List<CarListViewModel> findPage(String afterMake, String afterId, int size) {
+        PageRequest page = PageRequest.of(0, size);
+
+        return afterMake == null || afterId == null
+                ? this.carRepository.findFirstPage(page)
+                : this.carRepository.findPageAfter(afterMake, afterId, page);
+    }
+
+    @Override
+    public Iterable<CarListViewModel> findAllInChunks() {
+        return new ChunkedIterable<>(this.chunkSize, last -> last == null
+                ? this.findPage(null, null, this.chunkSize)
+                : this.findPage(last.getMake(), last.getId(), this.chunkSize));
+    }
+
+    @Override
+    public List<CarSearchViewModel> searchCars(String query, int limit) {
+        return this.searchIndex.searchCars(query, limit);
+    }
+
+    @Override
+    public int deletePartFromCars(String partId) {
+        return this.carRepository.deletePartFromCars(partId);
+    }
+
+    @Override
+    public int refreshPricesOfCarsWithPart(String partId) {
+        return this.carRepository.refreshPricesOfCarsWithPart(partId);
+    }
+
+    @Override
+    public int refreshPricesOfCarsWithParts(Collection<String> partIds) {
+        int updated = 0;
+        List<String> ids = new ArrayList<>(partIds);
+        for (int i = 0; i < ids.size(); i += this.partsBatchSize) {
+            updated += this.carRepository.refreshPricesOfCarsWithParts(
+                    ids.subList(i, Math.min(i + this.partsBatchSize, ids.size())));
+        }
+
+        return updated;
+    }
+
+    @Override
+    public int refreshPricesOfCarsWithPartsOfSupplier(String supplierId) {
+        return this.carRepository.refreshPricesOfCarsWithPartsOfSupplier(supplierId);
+    }
+
+    private List<Part> findPartsByIds(List<String> ids) {
+        List<String> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<String, Part> parts = new HashMap<>();
+        for (int i = 0; i < distinctIds.size(); i += this.partsBatchSize) {
+            List<String> batch = distinctIds.subList(i, Math.min(i + this.partsBatchSize, distinctIds.size()));
+            this.partRepository.findAllById(batch).forEach(x -> parts.put(x.getId(), x));
+        }
+
+        List<String> unknownIds = distinctIds.stream()
+                .filter(x -> !parts.containsKey(x))
+                .collect(Collectors.toList());
+        if (!unknownIds.isEmpty()) {
+            LOGGER.warn("Ignoring unknown part ids {}", unknownIds);
+        }
+
+        return distinctIds.stream()
+                .map(parts::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 }
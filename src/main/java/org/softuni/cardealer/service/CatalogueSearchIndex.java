@@ -0,0 +1,236 @@
+package org.softuni.cardealer.service;
+
+import org.softuni.cardealer.domain.models.view.CarSearchViewModel;
+import org.softuni.cardealer.domain.models.view.PartSearchViewModel;
+import org.softuni.cardealer.domain.models.view.SupplierSuggestionViewModel;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * In-process typeahead index over car makes and models, over part names
+ * together with their supplier's name, and over supplier name prefixes. It
+ * is filled once on startup and then kept current by the entity listeners
+ * after every committed change, so searches never reach the database.
+ */
+@Component
+public class CatalogueSearchIndex {
+    static final int MAX_RESULTS = 50;
+
+    private final NgramIndex<CarHit> cars = new NgramIndex<>(c -> c.make + " " + c.model);
+
+    private final NgramIndex<PartHit> parts = new NgramIndex<>(p -> p.name + " " + Objects.toString(p.supplierName, ""));
+
+    private final PrefixTrie<SupplierHit> suppliers = new PrefixTrie<>();
+
+    private final Map<String, String> supplierNames = new HashMap<>();
+
+    private final Map<String, Set<String>> partsBySupplier = new HashMap<>();
+
+    /**
+     * Ids changed by committed transactions while the initial load runs; the
+     * load must not overwrite them with what it read before the change.
+     */
+    private Set<String> changedWhileLoading;
+
+    public List<CarSearchViewModel> searchCars(String query, int limit) {
+        return Collections.unmodifiableList(this.cars.search(query, Math.min(limit, MAX_RESULTS)));
+    }
+
+    public List<PartSearchViewModel> searchParts(String query, int limit) {
+        return Collections.unmodifiableList(this.parts.search(query, Math.min(limit, MAX_RESULTS)));
+    }
+
+    public List<SupplierSuggestionViewModel> suggestSuppliers(String prefix, int limit) {
+        return Collections.unmodifiableList(this.suppliers.withPrefix(prefix, Math.min(limit, MAX_RESULTS)));
+    }
+
+    public synchronized void carChanged(String id, String make, String model) {
+        this.changed(id);
+        this.cars.put(id, new CarHit(id, make, model));
+    }
+
+    public synchronized void carRemoved(String id) {
+        this.changed(id);
+        this.cars.remove(id);
+    }
+
+    public synchronized void partChanged(String id, String name, String supplierId) {
+        this.changed(id);
+        this.putPart(id, name, supplierId);
+    }
+
+    public synchronized void partRemoved(String id) {
+        this.changed(id);
+
+        PartHit removed = this.parts.get(id);
+        if (removed != null) {
+            this.partsBySupplier.getOrDefault(removed.supplierId, new HashSet<>()).remove(id);
+            this.parts.remove(id);
+        }
+    }
+
+    public synchronized void supplierChanged(String id, String name) {
+        this.changed(id);
+        this.putSupplier(id, name);
+    }
+
+    public synchronized void supplierRemoved(String id) {
+        this.changed(id);
+        this.supplierNames.remove(id);
+        this.partsBySupplier.remove(id);
+        this.suppliers.remove(id);
+    }
+
+    synchronized void beginLoad() {
+        this.changedWhileLoading = new HashSet<>();
+    }
+
+    synchronized void loadCar(String id, String make, String model) {
+        if (!this.changedWhileLoading.contains(id)) {
+            this.cars.put(id, new CarHit(id, make, model));
+        }
+    }
+
+    synchronized void loadPart(String id, String name, String supplierId) {
+        if (!this.changedWhileLoading.contains(id)) {
+            this.putPart(id, name, supplierId);
+        }
+    }
+
+    synchronized void loadSupplier(String id, String name) {
+        if (!this.changedWhileLoading.contains(id)) {
+            this.putSupplier(id, name);
+        }
+    }
+
+    synchronized void endLoad() {
+        this.changedWhileLoading = null;
+    }
+
+    int carCount() {
+        return this.cars.size();
+    }
+
+    int partCount() {
+        return this.parts.size();
+    }
+
+    private void changed(String id) {
+        if (this.changedWhileLoading != null) {
+            this.changedWhileLoading.add(id);
+        }
+    }
+
+    private void putPart(String id, String name, String supplierId) {
+        PartHit previous = this.parts.get(id);
+        if (previous != null && !previous.supplierId.equals(supplierId)) {
+            this.partsBySupplier.getOrDefault(previous.supplierId, new HashSet<>()).remove(id);
+        }
+
+        this.partsBySupplier.computeIfAbsent(supplierId, k -> new HashSet<>()).add(id);
+        this.parts.put(id, new PartHit(id, name, supplierId, this.supplierNames.get(supplierId)));
+    }
+
+    private void putSupplier(String id, String name) {
+        String previous = this.supplierNames.put(id, name);
+        this.suppliers.put(id, name, new SupplierHit(id, name));
+        if (name.equals(previous)) {
+            return;
+        }
+
+        // the supplier's name is part of every one of its parts' text
+        for (String partId : this.partsBySupplier.getOrDefault(id, new HashSet<>())) {
+            PartHit part = this.parts.get(partId);
+            this.parts.put(partId, new PartHit(partId, part.name, id, name));
+        }
+    }
+
+    private static final class CarHit implements CarSearchViewModel {
+        private final String id;
+
+        private final String make;
+
+        private final String model;
+
+        private CarHit(String id, String make, String model) {
+            this.id = id;
+            this.make = make;
+            this.model = model;
+        }
+
+        @Override
+        public String getId() {
+            return this.id;
+        }
+
+        @Override
+        public String getMake() {
+            return this.make;
+        }
+
+        @Override
+        public String getModel() {
+            return this.model;
+        }
+    }
+
+    private static final class SupplierHit implements SupplierSuggestionViewModel {
+        private final String id;
+
+        private final String name;
+
+        private SupplierHit(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public String getId() {
+            return this.id;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+    }
+
+    private static final class PartHit implements PartSearchViewModel {
+        private final String id;
+
+        private final String name;
+
+        private final String supplierId;
+
+        private final String supplierName;
+
+        private PartHit(String id, String name, String supplierId, String supplierName) {
+            this.id = id;
+            this.name = name;
+            this.supplierId = supplierId;
+            this.supplierName = supplierName;
+        }
+
+        @Override
+        public String getId() {
+            return this.id;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public String getSupplierName() {
+            return this.supplierName;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.softuni.cardealer.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.softuni.cardealer.domain.models.view.CarListViewModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the catalogue search index from the database on startup. Changes
+ * committed while it runs are applied by the entity listeners and win over
+ * the rows the load read.
+ */
+@Component
+public class CatalogueSearchIndexLoader implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogueSearchIndexLoader.class);
+
+    private final CatalogueSearchIndex index;
+
+    private final SupplierService supplierService;
+
+    private final PartService partService;
+
+    private final CarService carService;
+
+    @Autowired
+    public CatalogueSearchIndexLoader(CatalogueSearchIndex index, SupplierService supplierService,
+                                      PartService partService, CarService carService) {
+        this.index = index;
+        this.supplierService = supplierService;
+        this.partService = partService;
+        this.carService = carService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+
+        this.index.beginLoad();
+        try {
+            // suppliers first, parts are indexed together with their supplier's name
+            this.supplierService.forEachSupplier(s -> this.index.loadSupplier(s.getId(), s.getName()));
+            this.partService.forEachPart(p -> this.index.loadPart(p.getId(), p.getName(), p.getSupplier().getId()));
+            for (CarListViewModel car : this.carService.findAllInChunks()) {
+                this.index.loadCar(car.getId(), car.getMake(), car.getModel());
+            }
+        } finally {
+            this.index.endLoad();
+        }
+
+        LOGGER.info("Indexed {} cars and {} parts for search in {} ms",
+                this.index.carCount(), this.index.partCount(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,46 @@
+package org.softuni.cardealer.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process data versions of the parts and suppliers tables. Every write
+ * bumps the matching counter, so anything derived from the catalogue can be
+ * cached until the version it was built from changes, and of two things
+ * built from the same table the one with the higher version is newer.
+ */
+@Component
+public class CatalogueVersions {
+    private final long epoch = System.currentTimeMillis();
+
+    private final AtomicLong parts = new AtomicLong();
+
+    private final AtomicLong suppliers = new AtomicLong();
+
+    public void partsChanged() {
+        this.parts.incrementAndGet();
+    }
+
+    public void suppliersChanged() {
+        this.suppliers.incrementAndGet();
+        // parts are served together with their supplier, so both tables count
+        this.parts.incrementAndGet();
+    }
+
+    public long partsVersion() {
+        return this.parts.get();
+    }
+
+    public long suppliersVersion() {
+        return this.suppliers.get();
+    }
+
+    /**
+     * Entity tag of a version. The counters start over on every restart, so
+     * the tag includes the start time as well.
+     */
+    public String eTag(String table, long version) {
+        return String.format("%s-%d-%d", table, this.epoch, version);
+    }
+}
@@ -0,0 +1,57 @@
+package org.softuni.cardealer.service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Lazily walks a keyset-paginated result, asking for the next chunk only
+ * once the previous one has been consumed. The function receives the last
+ * element of the previous chunk, or {@code null} for the first one.
+ */
+public class ChunkedIterable<T> implements Iterable<T> {
+    private final int chunkSize;
+
+    private final Function<T, List<T>> chunkAfter;
+
+    public ChunkedIterable(int chunkSize, Function<T, List<T>> chunkAfter) {
+        this.chunkSize = chunkSize;
+        this.chunkAfter = chunkAfter;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private List<T> chunk = chunkAfter.apply(null);
+
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (this.position < this.chunk.size()) {
+                    return true;
+                }
+
+                if (this.chunk.size() < chunkSize) {
+                    return false;
+                }
+
+                T last = this.chunk.get(this.chunk.size() - 1);
+                this.chunk = chunkAfter.apply(last);
+                this.position = 0;
+
+                return !this.chunk.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return this.chunk.get(this.position++);
+            }
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package org.softuni.cardealer.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads comma separated rows one at a time, so an import never holds more
+ * than the current row in memory. Supports double-quoted fields with
+ * embedded commas, line breaks and doubled quotes.
+ */
+public class CsvReader {
+    private static final int END = -1;
+
+    private static final int NONE = -2;
+
+    private final Reader reader;
+
+    private int next = NONE;
+
+    private long line = 1;
+
+    private long rowLine;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * @return the fields of the next non-blank row, or {@code null} at the end of the input
+     */
+    public List<String> readRow() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+
+        this.rowLine = this.line;
+        while (true) {
+            int c = this.read();
+
+            if (inQuotes) {
+                if (c == END) {
+                    throw new IOException("Unterminated quoted field starting on line " + this.rowLine);
+                }
+                if (c == '"') {
+                    if (this.peek() == '"') {
+                        field.append((char) this.read());
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+                continue;
+            }
+
+            if (c == '"' && field.length() == 0 && !quoted) {
+                quoted = true;
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\r' || c == '\n' || c == END) {
+                if (c == '\r' && this.peek() == '\n') {
+                    this.read();
+                }
+
+                boolean blank = fields.isEmpty() && field.length() == 0 && !quoted;
+                if (blank && c == END) {
+                    return null;
+                }
+                if (blank) {
+                    this.rowLine = this.line;
+                    continue;
+                }
+
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * @return the line on which the row last returned by {@link #readRow()} started
+     */
+    public long getRowLine() {
+        return this.rowLine;
+    }
+
+    private int read() throws IOException {
+        int c = this.next != NONE ? this.next : this.reader.read();
+        this.next = NONE;
+        if (c == '\n') {
+            this.line++;
+        }
+
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (this.next == NONE) {
+            this.next = this.reader.read();
+        }
+
+        return this.next;
+    }
+}
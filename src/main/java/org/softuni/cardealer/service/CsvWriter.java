@@ -0,0 +1,57 @@
+package org.softuni.cardealer.service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes comma separated rows, quoting only the fields that need it. Text
+ * that a spreadsheet would run as a formula is prefixed with a single quote;
+ * numbers are written as they are.
+ */
+public class CsvWriter {
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final Writer writer;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                this.writer.write(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                this.writeField("");
+            } else if (value instanceof Number) {
+                this.writeField(value.toString());
+            } else {
+                this.writeField(neutralizeFormula(value.toString()));
+            }
+        }
+        this.writer.write('\n');
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            this.writer.write(value);
+            return;
+        }
+
+        this.writer.write('"');
+        this.writer.write(value.replace("\"", "\"\""));
+        this.writer.write('"');
+    }
+
+    private static String neutralizeFormula(String value) {
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            return "'" + value;
+        }
+
+        return value;
+    }
+}
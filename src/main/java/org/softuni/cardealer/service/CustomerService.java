@@ -1,6 +1,7 @@
 package org.softuni.cardealer.service;
 
 import org.softuni.cardealer.domain.models.service.CustomerServiceModel;
+import org.softuni.cardealer.domain.models.view.CustomerListViewModel;
 
 import java.util.List;
 
@@ -15,4 +16,6 @@ public interface CustomerService {
     CustomerServiceModel findCustomerById(String id);
 
     List<CustomerServiceModel> findAll();
+
+    List<CustomerListViewModel> findAllViews();
 }
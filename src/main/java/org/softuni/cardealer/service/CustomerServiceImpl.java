@@ -1,11 +1,13 @@
 package org.softuni.cardealer.service;
 
-import org.modelmapper.ModelMapper;
 import org.softuni.cardealer.domain.entities.Customer;
 import org.softuni.cardealer.domain.models.service.CustomerServiceModel;
+import org.softuni.cardealer.domain.models.view.CustomerListViewModel;
+import org.softuni.cardealer.mapping.DtoMapper;
 import org.softuni.cardealer.repository.CustomerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -15,21 +17,21 @@ import java.util.stream.Collectors;
 public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
 
     @Autowired
-    public CustomerServiceImpl(CustomerRepository customerRepository, ModelMapper modelMapper) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, DtoMapper dtoMapper) {
         this.customerRepository = customerRepository;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
     }
 
     @Override
     public CustomerServiceModel saveCustomer(CustomerServiceModel customerServiceModel) {
-        Customer customer = this.modelMapper.map(customerServiceModel, Customer.class);
+        Customer customer = this.dtoMapper.map(customerServiceModel, Customer.class);
         customer.setIsYoungDriver(LocalDate.now().getYear() - customer.getBirthDate().getYear() <= 21);
         customer = this.customerRepository.saveAndFlush(customer);
 
-        return this.modelMapper.map(customer, CustomerServiceModel.class);
+        return this.dtoMapper.map(customer, CustomerServiceModel.class);
 
     }
 
@@ -43,7 +45,7 @@ public class CustomerServiceImpl implements CustomerService {
 
         customer = this.customerRepository.saveAndFlush(customer);
 
-        return this.modelMapper.map(customer, CustomerServiceModel.class);
+        return this.dtoMapper.map(customer, CustomerServiceModel.class);
 
     }
 
@@ -52,21 +54,29 @@ public class CustomerServiceImpl implements CustomerService {
         Customer customer = this.customerRepository.findById(id).orElse(null);
         this.customerRepository.delete(customer);
 
-        return this.modelMapper.map(customer, CustomerServiceModel.class);
+        return this.dtoMapper.map(customer, CustomerServiceModel.class);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CustomerServiceModel findCustomerById(String id) {
         Customer customer = this.customerRepository.findById(id).orElse(null);
 
-        return this.modelMapper.map(customer, CustomerServiceModel.class);
+        return this.dtoMapper.map(customer, CustomerServiceModel.class);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerServiceModel> findAll() {
         return this.customerRepository.findAll()
                 .stream()
-                .map(x -> this.modelMapper.map(x, CustomerServiceModel.class))
+                .map(x -> this.dtoMapper.map(x, CustomerServiceModel.class))
                 .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerListViewModel> findAllViews() {
+        return this.customerRepository.findAllViewsBy();
+    }
 }
@@ -0,0 +1,27 @@
+package org.softuni.cardealer.service;
+
+import org.softuni.cardealer.domain.models.service.ImportReportServiceModel;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Bulk CSV imports. Every input starts with a header row, which is skipped.
+ */
+public interface ImportService {
+
+    /**
+     * Columns: {@code name,isImporter}
+     */
+    ImportReportServiceModel importSuppliers(Reader reader) throws IOException;
+
+    /**
+     * Columns: {@code name,price,supplierName}
+     */
+    ImportReportServiceModel importParts(Reader reader) throws IOException;
+
+    /**
+     * Columns: {@code make,model,travelledDistance,partNames}, part names separated by {@code |}
+     */
+    ImportReportServiceModel importCars(Reader reader) throws IOException;
+}
@@ -0,0 +1,239 @@
+package org.softuni.cardealer.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.domain.models.service.ImportErrorServiceModel;
+import org.softuni.cardealer.domain.models.service.ImportReportServiceModel;
+import org.softuni.cardealer.domain.models.view.PartListViewModel;
+import org.softuni.cardealer.domain.models.view.SupplierListViewModel;
+import org.softuni.cardealer.repository.PartRepository;
+import org.softuni.cardealer.repository.SupplierRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ImportServiceImpl implements ImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportServiceImpl.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String PART_NAMES_SEPARATOR = "\\|";
+
+    private final SupplierRepository supplierRepository;
+
+    private final PartRepository partRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    @Autowired
+    public ImportServiceImpl(SupplierRepository supplierRepository, PartRepository partRepository, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${cardealer.import.chunk-size:1000}") int chunkSize) {
+        this.supplierRepository = supplierRepository;
+        this.partRepository = partRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public ImportReportServiceModel importSuppliers(Reader reader) throws IOException {
+        return this.importRows("suppliers", reader, row -> {
+            Supplier supplier = new Supplier();
+            supplier.setName(required(row, 0, "name"));
+            supplier.setIsImporter(parseBoolean(required(row, 1, "isImporter"), "isImporter"));
+
+            return supplier;
+        });
+    }
+
+    @Override
+    public ImportReportServiceModel importParts(Reader reader) throws IOException {
+        Map<String, String> supplierIds = this.supplierRepository.findAllViewsBy()
+                .stream()
+                .collect(Collectors.toMap(SupplierListViewModel::getName, SupplierListViewModel::getId, (x, y) -> x));
+
+        return this.importRows("parts", reader, row -> {
+            Part part = new Part();
+            part.setName(required(row, 0, "name"));
+            part.setPrice(parseDecimal(required(row, 1, "price"), "price"));
+            part.setSupplier(this.entityManager.getReference(Supplier.class,
+                    lookup(supplierIds, required(row, 2, "supplierName"), "supplier")));
+
+            return part;
+        });
+    }
+
+    @Override
+    public ImportReportServiceModel importCars(Reader reader) throws IOException {
+        Map<String, PartListViewModel> partsByName = this.partRepository.findAllViews()
+                .stream()
+                .collect(Collectors.toMap(PartListViewModel::getName, Function.identity(), (x, y) -> x));
+
+        return this.importRows("cars", reader, row -> {
+            Car car = new Car();
+            car.setMake(required(row, 0, "make"));
+            car.setModel(required(row, 1, "model"));
+            car.setTravelledDistance(parseLong(required(row, 2, "travelledDistance"), "travelledDistance"));
+
+            // priced from the part views, the references stay uninitialized
+            List<Part> parts = new ArrayList<>();
+            BigDecimal price = BigDecimal.ZERO;
+            if (row.size() > 3 && !row.get(3).trim().isEmpty()) {
+                for (String partName : row.get(3).split(PART_NAMES_SEPARATOR)) {
+                    PartListViewModel part = lookup(partsByName, partName.trim(), "part");
+                    parts.add(this.entityManager.getReference(Part.class, part.getId()));
+                    price = price.add(part.getPrice());
+                }
+            }
+            car.setParts(parts);
+            car.setPriceOfParts(price);
+
+            return car;
+        });
+    }
+
+    private ImportReportServiceModel importRows(String type, Reader reader,
+                                                Function<List<String>, Object> rowMapper) throws IOException {
+        long start = System.nanoTime();
+        ImportReportServiceModel report = new ImportReportServiceModel();
+
+        CsvReader csvReader = new CsvReader(reader);
+        csvReader.readRow();
+
+        List<Long> lines = new ArrayList<>(this.chunkSize);
+        List<List<String>> rows = new ArrayList<>(this.chunkSize);
+        for (List<String> row = csvReader.readRow(); row != null; row = csvReader.readRow()) {
+            lines.add(csvReader.getRowLine());
+            rows.add(row);
+
+            if (rows.size() == this.chunkSize) {
+                this.importChunk(lines, rows, rowMapper, report);
+                lines.clear();
+                rows.clear();
+            }
+        }
+        this.importChunk(lines, rows, rowMapper, report);
+
+        long elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        report.setElapsedMillis(elapsedMillis);
+        report.setRowsPerSecond((report.getImported() + report.getFailed()) * 1000 / elapsedMillis);
+
+        LOGGER.info("Imported {} {} ({} failed) in {} ms, {} rows/s",
+                report.getImported(), type, report.getFailed(), elapsedMillis, report.getRowsPerSecond());
+
+        return report;
+    }
+
+    /**
+     * Persists one chunk in its own transaction. Rows that cannot be parsed are
+     * reported and skipped; a database error rolls back and reports the whole chunk.
+     */
+    private void importChunk(List<Long> lines, List<List<String>> rows, Function<List<String>, Object> rowMapper,
+                             ImportReportServiceModel report) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<ImportErrorServiceModel> rowErrors = new ArrayList<>();
+        try {
+            int imported = this.transactionTemplate.execute(status -> {
+                int persisted = 0;
+                for (int i = 0; i < rows.size(); i++) {
+                    try {
+                        this.entityManager.persist(rowMapper.apply(rows.get(i)));
+                        persisted++;
+                    } catch (IllegalArgumentException e) {
+                        rowErrors.add(new ImportErrorServiceModel(lines.get(i), e.getMessage()));
+                    }
+                }
+
+                this.entityManager.flush();
+                this.entityManager.clear();
+
+                return persisted;
+            });
+
+            report.setImported(report.getImported() + imported);
+            report.setFailed(report.getFailed() + rowErrors.size());
+            rowErrors.forEach(x -> addError(report, x));
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            LOGGER.warn("Rolled back import rows on lines {}-{}", lines.get(0), lines.get(lines.size() - 1), e);
+
+            report.setFailed(report.getFailed() + rows.size());
+            addError(report, new ImportErrorServiceModel(lines.get(0), String.format(
+                    "Rows on lines %d-%d were rolled back: %s", lines.get(0), lines.get(lines.size() - 1), e.getMessage())));
+        }
+    }
+
+    private static void addError(ImportReportServiceModel report, ImportErrorServiceModel error) {
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(error);
+        }
+    }
+
+    private static String required(List<String> row, int index, String column) {
+        String value = index < row.size() ? row.get(index).trim() : "";
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+
+        return value;
+    }
+
+    private static <V> V lookup(Map<String, V> byName, String name, String kind) {
+        V value = byName.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException(String.format("Unknown %s '%s'", kind, name));
+        }
+
+        return value;
+    }
+
+    private static boolean parseBoolean(String value, String column) {
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException(String.format("%s '%s' is not true or false", column, value));
+        }
+
+        return Boolean.parseBoolean(value);
+    }
+
+    private static BigDecimal parseDecimal(String value, String column) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("%s '%s' is not a number", column, value));
+        }
+    }
+
+    private static Long parseLong(String value, String column) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("%s '%s' is not a whole number", column, value));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package org.softuni.cardealer.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index from the trigrams and the one and two character word
+ * prefixes of a document's text to the documents containing them.
+ * <p>
+ * A query matches a document when every query word occurs in one of the
+ * document's words, or starts one of them for words shorter than a trigram.
+ * The rarest key of the query picks the candidates, which are then checked
+ * against the document text, so postings may safely hold stale entries:
+ * a changed document gets a new number and the old one becomes a tombstone
+ * until the next compaction.
+ */
+final class NgramIndex<D> {
+    private static final int GRAM = 3;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Function<? super D, String> text;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> numbers = new HashMap<>();
+
+    private final List<D> documents = new ArrayList<>();
+
+    private final List<String[]> words = new ArrayList<>();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    private int tombstones;
+
+    NgramIndex(Function<? super D, String> text) {
+        this.text = text;
+    }
+
+    void put(String id, D document) {
+        this.lock.writeLock().lock();
+        try {
+            this.unlink(id);
+            this.link(id, document);
+            this.compactIfSparse();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        this.lock.writeLock().lock();
+        try {
+            this.unlink(id);
+            this.compactIfSparse();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    D get(String id) {
+        this.lock.readLock().lock();
+        try {
+            Integer number = this.numbers.get(id);
+
+            return number == null ? null : this.documents.get(number);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.numbers.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    List<D> search(String query, int limit) {
+        String[] terms = words(query);
+        if (terms.length == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        this.lock.readLock().lock();
+        try {
+            Postings rarest = null;
+            for (String term : terms) {
+                Postings candidates = this.postings.get(key(term));
+                if (candidates == null) {
+                    return new ArrayList<>();
+                }
+
+                for (int i = 1; i + GRAM <= term.length(); i++) {
+                    Postings next = this.postings.get(gram(term, i));
+                    if (next == null) {
+                        return new ArrayList<>();
+                    }
+                    if (next.size < candidates.size) {
+                        candidates = next;
+                    }
+                }
+
+                if (rarest == null || candidates.size < rarest.size) {
+                    rarest = candidates;
+                }
+            }
+
+            List<D> hits = new ArrayList<>(Math.min(limit, rarest.size));
+            for (int i = 0; i < rarest.size && hits.size() < limit; i++) {
+                int number = rarest.numbers[i];
+                D document = this.documents.get(number);
+                if (document != null && matches(this.words.get(number), terms)) {
+                    hits.add(document);
+                }
+            }
+
+            return hits;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void link(String id, D document) {
+        int number = this.documents.size();
+        String[] documentWords = words(this.text.apply(document));
+
+        this.numbers.put(id, number);
+        this.documents.add(document);
+        this.words.add(documentWords);
+
+        for (String word : documentWords) {
+            this.postings.computeIfAbsent(prefix(word, 1), k -> new Postings()).add(number);
+            if (word.length() > 1) {
+                this.postings.computeIfAbsent(prefix(word, 2), k -> new Postings()).add(number);
+            }
+            for (int i = 0; i + GRAM <= word.length(); i++) {
+                this.postings.computeIfAbsent(gram(word, i), k -> new Postings()).add(number);
+            }
+        }
+    }
+
+    private void unlink(String id) {
+        Integer number = this.numbers.remove(id);
+        if (number != null) {
+            this.documents.set(number, null);
+            this.words.set(number, null);
+            this.tombstones++;
+        }
+    }
+
+    /**
+     * Renumbers the live documents once tombstones make up most of the
+     * index, which keeps the cost of churn proportional to the live size.
+     */
+    private void compactIfSparse() {
+        if (this.tombstones < 1024 || this.tombstones * 2 < this.documents.size()) {
+            return;
+        }
+
+        Map<String, Integer> live = new HashMap<>(this.numbers);
+        List<D> documents = new ArrayList<>(this.documents);
+
+        this.numbers.clear();
+        this.documents.clear();
+        this.words.clear();
+        this.postings.clear();
+        this.tombstones = 0;
+
+        live.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .forEach(e -> this.link(e.getKey(), documents.get(e.getValue())));
+    }
+
+    private static boolean matches(String[] documentWords, String[] terms) {
+        for (String term : terms) {
+            boolean found = false;
+            for (int i = 0; i < documentWords.length && !found; i++) {
+                found = term.length() < GRAM
+                        ? documentWords[i].startsWith(term)
+                        : documentWords[i].contains(term);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+
+        String folded = COMBINING_MARKS
+                .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        return Arrays.stream(SEPARATORS.split(folded))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static long key(String term) {
+        return term.length() < GRAM ? prefix(term, term.length()) : gram(term, 0);
+    }
+
+    private static long gram(String word, int start) {
+        return ((long) word.charAt(start) << 32) | ((long) word.charAt(start + 1) << 16) | word.charAt(start + 2);
+    }
+
+    private static long prefix(String word, int length) {
+        // the length marker in the top bits keeps prefix keys apart from trigram keys
+        long key = (long) length << 48;
+        for (int i = 0; i < length; i++) {
+            key |= (long) word.charAt(i) << (16 * (length - 1 - i));
+        }
+
+        return key;
+    }
+
+    /**
+     * Ascending document numbers; new documents always get the highest
+     * number, so appending keeps the order.
+     */
+    private static final class Postings {
+        private int[] numbers = new int[4];
+
+        private int size;
+
+        void add(int number) {
+            if (this.size > 0 && this.numbers[this.size - 1] == number) {
+                return;
+            }
+            if (this.size == this.numbers.length) {
+                this.numbers = Arrays.copyOf(this.numbers, this.size * 2);
+            }
+
+            this.numbers[this.size++] = number;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package org.softuni.cardealer.service;
 
+import org.softuni.cardealer.domain.models.service.PartRepricingServiceModel;
 import org.softuni.cardealer.domain.models.service.PartServiceModel;
+import org.softuni.cardealer.domain.models.view.PartListViewModel;
+import org.softuni.cardealer.domain.models.view.PartSearchViewModel;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PartService {
 
@@ -12,7 +16,15 @@ public interface PartService {
 
     PartServiceModel deletePart(String id);
 
+    int repriceParts(PartRepricingServiceModel repricing);
+
     PartServiceModel findPartById(String id);
 
     List<PartServiceModel> findAll();
+
+    List<PartListViewModel> findAllViews();
+
+    List<PartSearchViewModel> searchParts(String query, int limit);
+
+    void forEachPart(Consumer<? super PartServiceModel> action);
 }
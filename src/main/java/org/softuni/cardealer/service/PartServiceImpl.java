@@ -1,78 +1,209 @@
 package org.softuni.cardealer.service;
 
-import org.modelmapper.ModelMapper;
 import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.domain.listeners.CatalogueChangeListener;
+import org.softuni.cardealer.domain.models.service.PartRepricingServiceModel;
 import org.softuni.cardealer.domain.models.service.PartServiceModel;
+import org.softuni.cardealer.domain.models.service.SupplierServiceModel;
+import org.softuni.cardealer.domain.models.view.PartListViewModel;
+import org.softuni.cardealer.domain.models.view.PartSearchViewModel;
+import org.softuni.cardealer.mapping.DtoMapper;
 import org.softuni.cardealer.repository.CarRepository;
 import org.softuni.cardealer.repository.PartRepository;
 import org.softuni.cardealer.repository.SupplierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PartServiceImpl implements PartService {
+    private static final int STREAM_CLEAR_INTERVAL = 500;
+
     private final PartRepository partRepository;
 
     private final SupplierRepository supplierRepository;
 
     private final CarService carService;
 
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
+
+    private final EntityManager entityManager;
+
+    private final CatalogueChangeListener catalogueChangeListener;
+
+    private final CatalogueSearchIndex searchIndex;
+
+    private final int batchSize;
 
     @Autowired
-    public PartServiceImpl(PartRepository partRepository, ModelMapper modelMapper, SupplierRepository supplierRepository, CarService carService) {
+    public PartServiceImpl(PartRepository partRepository, DtoMapper dtoMapper, SupplierRepository supplierRepository, CarService carService, EntityManager entityManager,
+                           CatalogueChangeListener catalogueChangeListener, CatalogueSearchIndex searchIndex,
+                           @Value("${cardealer.parts.batch-size:100}") int batchSize) {
         this.partRepository = partRepository;
         this.supplierRepository = supplierRepository;
         this.carService = carService;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.entityManager = entityManager;
+        this.catalogueChangeListener = catalogueChangeListener;
+        this.searchIndex = searchIndex;
+        this.batchSize = batchSize;
     }
 
     @Override
     public PartServiceModel savePart(PartServiceModel partServiceModel) {
-        Part part = this.modelMapper.map(partServiceModel, Part.class);
-        part.setSupplier(this.supplierRepository.findByName(partServiceModel.getSupplier().getName()).orElse(null));
+        Part part = this.dtoMapper.map(partServiceModel, Part.class);
+        part.setSupplier(this.findSupplier(partServiceModel.getSupplier()));
         this.partRepository.saveAndFlush(part);
 
-        return this.modelMapper.map(part, PartServiceModel.class);
+        return this.dtoMapper.map(part, PartServiceModel.class);
     }
 
     @Override
+    @Transactional
     public PartServiceModel editPart(String id, PartServiceModel partServiceModel) {
         Part part = this.partRepository.findById(id).orElse(null);
+        boolean repriced = partServiceModel.getPrice() == null
+                || part.getPrice().compareTo(partServiceModel.getPrice()) != 0;
         part.setName(partServiceModel.getName());
         part.setPrice(partServiceModel.getPrice());
 
         Part edited = this.partRepository.saveAndFlush(part);
+        if (repriced) {
+            this.carService.refreshPricesOfCarsWithPart(edited.getId());
+        }
 
-        return this.modelMapper.map(edited, PartServiceModel.class);
+        return this.dtoMapper.map(edited, PartServiceModel.class);
 
     }
 
     @Override
+    @Transactional
     public PartServiceModel deletePart(String id) {
         Part part = this.partRepository.findById(id).orElseThrow();
 
         this.carService.deletePartFromCars(part.getId());
         this.partRepository.delete(part);
 
-        return this.modelMapper.map(part, PartServiceModel.class);
+        return this.dtoMapper.map(part, PartServiceModel.class);
     }
 
+    /**
+     * Applies a percentage or an absolute change to every part of a supplier,
+     * or to the given part ids, with one UPDATE per batch. Absolute changes
+     * never take a price below zero.
+     */
     @Override
+    @Transactional
+    public int repriceParts(PartRepricingServiceModel repricing) {
+        BigDecimal percent = repricing.getPercent();
+        BigDecimal amount = repricing.getAmount();
+        if ((percent == null) == (amount == null)) {
+            throw new IllegalArgumentException("Exactly one of percent and amount is required");
+        }
+        if (percent != null && percent.compareTo(BigDecimal.valueOf(-100)) < 0) {
+            throw new IllegalArgumentException("A price cannot drop by more than 100%");
+        }
+        if ((repricing.getSupplier() == null) == (repricing.getPartIds() == null)) {
+            throw new IllegalArgumentException("Exactly one of supplier and partIds is required");
+        }
+
+        BigDecimal factor = percent == null ? null : BigDecimal.ONE.add(percent.movePointLeft(2));
+        int affected = 0;
+        if (repricing.getSupplier() != null) {
+            Supplier supplier = this.supplierRepository.findByName(repricing.getSupplier())
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown supplier " + repricing.getSupplier()));
+
+            affected = factor != null
+                    ? this.partRepository.multiplyPricesOfSupplier(supplier.getId(), factor)
+                    : this.partRepository.addToPricesOfSupplier(supplier.getId(), amount);
+            this.carService.refreshPricesOfCarsWithPartsOfSupplier(supplier.getId());
+        } else {
+            List<String> ids = repricing.getPartIds().stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .collect(Collectors.toList());
+            for (int i = 0; i < ids.size(); i += this.batchSize) {
+                List<String> batch = ids.subList(i, Math.min(i + this.batchSize, ids.size()));
+                affected += factor != null
+                        ? this.partRepository.multiplyPrices(batch, factor)
+                        : this.partRepository.addToPrices(batch, amount);
+            }
+            this.carService.refreshPricesOfCarsWithParts(ids);
+        }
+
+        if (affected > 0) {
+            this.catalogueChangeListener.onBulkChange(Part.class);
+        }
+
+        return affected;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public PartServiceModel findPartById(String id) {
         Part part = this.partRepository.findById(id).orElse(null);
 
-        return this.modelMapper.map(part, PartServiceModel.class);
+        return this.dtoMapper.map(part, PartServiceModel.class);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PartServiceModel> findAll() {
         return this.partRepository.findAll()
                 .stream()
-                .map(x -> this.modelMapper.map(x, PartServiceModel.class))
+                .map(x -> this.dtoMapper.map(x, PartServiceModel.class))
                 .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PartListViewModel> findAllViews() {
+        return this.partRepository.findAllViews();
+    }
+
+    @Override
+    public List<PartSearchViewModel> searchParts(String query, int limit) {
+        return this.searchIndex.searchParts(query, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachPart(Consumer<? super PartServiceModel> action) {
+        try (Stream<Part> parts = this.partRepository.streamAll()) {
+            int streamed = 0;
+            for (Iterator<Part> iterator = parts.iterator(); iterator.hasNext(); ) {
+                action.accept(this.dtoMapper.map(iterator.next(), PartServiceModel.class));
+
+                if (++streamed % STREAM_CLEAR_INTERVAL == 0) {
+                    this.entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Suggestions hand out supplier ids, so the id wins; the name remains
+     * for forms posted without one.
+     */
+    private Supplier findSupplier(SupplierServiceModel supplier) {
+        if (supplier == null) {
+            return null;
+        }
+        if (supplier.getId() != null && !supplier.getId().isEmpty()) {
+            return this.supplierRepository.findById(supplier.getId()).orElse(null);
+        }
+
+        return this.supplierRepository.findByName(supplier.getName()).orElse(null);
+    }
 }
@@ -0,0 +1,133 @@
+package org.softuni.cardealer.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive prefix trie of values keyed by id. Lookups walk down the
+ * prefix and then collect values in key order until the limit is reached,
+ * so their cost depends on the prefix length and the limit, not on how many
+ * keys the trie holds. Values whose keys differ only in case are ordered by
+ * their key as given, then by id.
+ */
+final class PrefixTrie<V> {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Node<V> root = new Node<>();
+
+    private final Map<String, String> keys = new HashMap<>();
+
+    void put(String id, String key, V value) {
+        this.lock.writeLock().lock();
+        try {
+            this.unlink(id);
+
+            String trimmed = key.trim();
+            String folded = fold(trimmed);
+            Node<V> node = this.root;
+            for (int i = 0; i < folded.length(); i++) {
+                node = node.children.computeIfAbsent(folded.charAt(i), c -> new Node<>());
+            }
+
+            node.values.put(valueKey(trimmed, id), value);
+            this.keys.put(id, trimmed);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        this.lock.writeLock().lock();
+        try {
+            this.unlink(id);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    List<V> withPrefix(String prefix, int limit) {
+        List<V> matches = new ArrayList<>();
+        if (prefix == null || limit <= 0) {
+            return matches;
+        }
+
+        this.lock.readLock().lock();
+        try {
+            String folded = fold(prefix);
+            Node<V> node = this.root;
+            for (int i = 0; i < folded.length() && node != null; i++) {
+                node = node.children.get(folded.charAt(i));
+            }
+            if (node == null) {
+                return matches;
+            }
+
+            // depth first in character order, so shorter and alphabetically earlier keys come first
+            Deque<Node<V>> pending = new ArrayDeque<>();
+            pending.push(node);
+            while (!pending.isEmpty() && matches.size() < limit) {
+                Node<V> next = pending.pop();
+                for (Iterator<V> values = next.values.values().iterator(); values.hasNext() && matches.size() < limit; ) {
+                    matches.add(values.next());
+                }
+                for (Node<V> child : next.children.descendingMap().values()) {
+                    pending.push(child);
+                }
+            }
+
+            return matches;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void unlink(String id) {
+        String trimmed = this.keys.remove(id);
+        if (trimmed == null) {
+            return;
+        }
+
+        String key = fold(trimmed);
+        Deque<Node<V>> path = new ArrayDeque<>();
+        Node<V> node = this.root;
+        for (int i = 0; i < key.length(); i++) {
+            path.push(node);
+            node = node.children.get(key.charAt(i));
+        }
+        node.values.remove(valueKey(trimmed, id));
+
+        // prune the branch back to the last node still in use
+        for (int i = key.length() - 1; i >= 0 && node.isEmpty(); i--) {
+            Node<V> parent = path.pop();
+            parent.children.remove(key.charAt(i));
+            node = parent;
+        }
+    }
+
+    private static String valueKey(String key, String id) {
+        return key + '\u0000' + id;
+    }
+
+    private static String fold(String key) {
+        return key.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node<V> {
+        private final TreeMap<Character, Node<V>> children = new TreeMap<>();
+
+        private final TreeMap<String, V> values = new TreeMap<>();
+
+        boolean isEmpty() {
+            return this.children.isEmpty() && this.values.isEmpty();
+        }
+    }
+}
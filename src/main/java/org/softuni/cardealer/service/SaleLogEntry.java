@@ -0,0 +1,105 @@
+package org.softuni.cardealer.service;
+
+import java.time.LocalDate;
+
+/**
+ * One acknowledged sale as written to the sale write-ahead log.
+ */
+public class SaleLogEntry {
+    public static final String CAR = "car";
+
+    public static final String PART = "part";
+
+    private long sequence;
+
+    private String type;
+
+    private String id;
+
+    private String customerId;
+
+    private String carId;
+
+    private String partId;
+
+    private Integer quantity;
+
+    private Double discount;
+
+    private LocalDate soldOn;
+
+    public SaleLogEntry() {
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getCarId() {
+        return carId;
+    }
+
+    public void setCarId(String carId) {
+        this.carId = carId;
+    }
+
+    public String getPartId() {
+        return partId;
+    }
+
+    public void setPartId(String partId) {
+        this.partId = partId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Double getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(Double discount) {
+        this.discount = discount;
+    }
+
+    public LocalDate getSoldOn() {
+        return soldOn;
+    }
+
+    public void setSoldOn(LocalDate soldOn) {
+        this.soldOn = soldOn;
+    }
+}
@@ -2,10 +2,21 @@ package org.softuni.cardealer.service;
 
 import org.softuni.cardealer.domain.models.service.CarSaleServiceModel;
 import org.softuni.cardealer.domain.models.service.PartSaleServiceModel;
+import org.softuni.cardealer.domain.models.view.SaleExportViewModel;
 
+import java.util.function.Consumer;
+
+/**
+ * Every sale is saved under a new id. A sale that fails to save was not
+ * recorded and can be retried as is: with write-behind recording the call
+ * waits for the write-ahead log to write or reject the sale rather than
+ * timing out while it may still be written.
+ */
 public interface SaleService {
 
     CarSaleServiceModel saleCar(CarSaleServiceModel carSaleServiceModel);
 
     PartSaleServiceModel salePart(PartSaleServiceModel partSaleServiceModel);
+
+    void forEachSale(Consumer<? super SaleExportViewModel> action);
 }
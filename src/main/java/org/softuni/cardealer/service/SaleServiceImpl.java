@@ -1,43 +1,107 @@
 package org.softuni.cardealer.service;
 
-import org.modelmapper.ModelMapper;
 import org.softuni.cardealer.domain.entities.CarSale;
 import org.softuni.cardealer.domain.entities.PartSale;
+import org.softuni.cardealer.domain.identifiers.TimeOrderedUuidGenerator;
 import org.softuni.cardealer.domain.models.service.CarSaleServiceModel;
 import org.softuni.cardealer.domain.models.service.PartSaleServiceModel;
 import org.softuni.cardealer.domain.models.service.PartServiceModel;
+import org.softuni.cardealer.domain.models.view.SaleExportViewModel;
+import org.softuni.cardealer.mapping.DtoMapper;
 import org.softuni.cardealer.repository.CarSaleRepository;
 import org.softuni.cardealer.repository.PartSaleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Sales are written synchronously, or handed to the {@link SaleWriteBehindWriter}
+ * when write-behind recording is enabled.
+ */
 @Service
 public class SaleServiceImpl implements SaleService {
 
     private final CarSaleRepository carSaleRepository;
     private final PartSaleRepository partSaleRepository;
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
+    private final SalesRollupService salesRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final Optional<SaleWriteBehindWriter> writeBehindWriter;
 
     @Autowired
-    public SaleServiceImpl(CarSaleRepository carSaleRepository, PartSaleRepository partSaleRepository, ModelMapper modelMapper) {
+    public SaleServiceImpl(CarSaleRepository carSaleRepository, PartSaleRepository partSaleRepository, DtoMapper dtoMapper,
+                           SalesRollupService salesRollupService, PlatformTransactionManager transactionManager,
+                           Optional<SaleWriteBehindWriter> writeBehindWriter) {
         this.carSaleRepository = carSaleRepository;
         this.partSaleRepository = partSaleRepository;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.salesRollupService = salesRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeBehindWriter = writeBehindWriter;
     }
 
     @Override
     public CarSaleServiceModel saleCar(CarSaleServiceModel carSaleServiceModel) {
-        CarSale carSale = this.modelMapper.map(carSaleServiceModel, CarSale.class);
-        carSale = this.carSaleRepository.saveAndFlush(carSale);
+        CarSale carSale = this.dtoMapper.map(carSaleServiceModel, CarSale.class);
+        if (carSale.getSoldOn() == null) {
+            carSale.setSoldOn(LocalDate.now());
+        }
+
+        if (this.writeBehindWriter.isPresent()) {
+            carSale.setId(TimeOrderedUuidGenerator.generate().toString());
+            carSale = this.writeBehindWriter.get().append(carSale);
+        } else {
+            CarSale unsaved = carSale;
+            carSale = this.transactionTemplate.execute(status -> {
+                CarSale saved = this.carSaleRepository.saveAndFlush(unsaved);
+                this.salesRollupService.recordCarSale(saved);
+
+                return saved;
+            });
+        }
 
-        return this.modelMapper.map(carSale, CarSaleServiceModel.class);
+        return this.dtoMapper.map(carSale, CarSaleServiceModel.class);
     }
 
     @Override
     public PartSaleServiceModel salePart(PartSaleServiceModel partSaleServiceModel) {
-        PartSale partSale = this.modelMapper.map(partSaleServiceModel, PartSale.class);
-        partSale = this.partSaleRepository.saveAndFlush(partSale);
+        PartSale partSale = this.dtoMapper.map(partSaleServiceModel, PartSale.class);
+        if (partSale.getSoldOn() == null) {
+            partSale.setSoldOn(LocalDate.now());
+        }
+
+        if (this.writeBehindWriter.isPresent()) {
+            partSale.setId(TimeOrderedUuidGenerator.generate().toString());
+            partSale = this.writeBehindWriter.get().append(partSale);
+        } else {
+            PartSale unsaved = partSale;
+            partSale = this.transactionTemplate.execute(status -> {
+                PartSale saved = this.partSaleRepository.saveAndFlush(unsaved);
+                this.salesRollupService.recordPartSale(saved);
+
+                return saved;
+            });
+        }
+
+        return this.dtoMapper.map(partSale, PartSaleServiceModel.class);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachSale(Consumer<? super SaleExportViewModel> action) {
+        try (Stream<SaleExportViewModel> carSales = this.carSaleRepository.streamAllExportViews()) {
+            carSales.forEach(action);
+        }
 
-        return this.modelMapper.map(partSale, PartSaleServiceModel.class);
+        try (Stream<SaleExportViewModel> partSales = this.partSaleRepository.streamAllExportViews()) {
+            partSales.forEach(action);
+        }
     }
 }
@@ -0,0 +1,276 @@
+package org.softuni.cardealer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of sales that were acknowledged but may not be in the
+ * database yet. Appends from all request threads are group-committed: a
+ * single writer thread writes everything queued so far and fsyncs once for
+ * the whole group, so throughput is bounded by sequential disk appends.
+ * <p>
+ * Every record is framed as {@code [length][crc32][json]}; a torn or corrupt
+ * tail left by a crash is cut off when the log is opened.
+ */
+public class SaleWriteAheadLog implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SaleWriteAheadLog.class);
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private static final int MAX_GROUP = 1000;
+
+    private final FileChannel channel;
+
+    private final ObjectMapper objectMapper;
+
+    private final Consumer<List<SaleLogEntry>> durableListener;
+
+    private final long compactBytes;
+
+    private final BlockingQueue<PendingAppend> appends = new LinkedBlockingQueue<>();
+
+    private final List<SaleLogEntry> recovered = new ArrayList<>();
+
+    private final Thread writer;
+
+    private final Object openLock = new Object();
+
+    private volatile boolean open = true;
+
+    private volatile long drainedThrough;
+
+    private long lastSequence;
+
+    /**
+     * @param checkpoint      sequence of the last entry known to be in the database
+     * @param durableListener receives every group of entries once it is on disk, before the appenders are released
+     */
+    public SaleWriteAheadLog(Path file, ObjectMapper objectMapper, long checkpoint, long compactBytes,
+                             Consumer<List<SaleLogEntry>> durableListener) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.objectMapper = objectMapper;
+        this.durableListener = durableListener;
+        this.compactBytes = compactBytes;
+
+        this.recover(checkpoint);
+        this.lastSequence = Math.max(this.lastSequence, checkpoint);
+        this.drainedThrough = checkpoint;
+
+        this.writer = new Thread(this::writeLoop, "sale-wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * @return the entries found on disk after the checkpoint when the log was opened
+     */
+    public List<SaleLogEntry> getRecovered() {
+        return this.recovered;
+    }
+
+    /**
+     * Blocks until the entry is durably on disk and returns it with its sequence number.
+     * It neither gives up on a timeout nor on an interrupt, so an append that
+     * fails was not written; every queued append is written or failed by the
+     * writer or by {@link #close()}.
+     */
+    public SaleLogEntry append(SaleLogEntry entry) throws IOException {
+        PendingAppend pending = new PendingAppend(entry);
+        // close() takes the lock too, so nothing is queued after the writer was told to finish
+        synchronized (this.openLock) {
+            if (!this.open) {
+                throw new IllegalStateException("The sale write-ahead log is closed");
+            }
+            this.appends.add(pending);
+        }
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return pending.result.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException
+                    ? (IOException) e.getCause()
+                    : new IOException(e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Marks every entry up to {@code sequence} as written to the database, so
+     * the file can be emptied once nothing newer is waiting.
+     */
+    public void drainedThrough(long sequence) {
+        this.drainedThrough = sequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this.openLock) {
+            this.open = false;
+        }
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // left behind when the writer was interrupted
+        IOException closed = new IOException("The sale write-ahead log was closed before the sale was written");
+        for (PendingAppend pending = this.appends.poll(); pending != null; pending = this.appends.poll()) {
+            pending.result.completeExceptionally(closed);
+        }
+        this.channel.close();
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> group = new ArrayList<>();
+        while (this.open || !this.appends.isEmpty()) {
+            try {
+                PendingAppend first = this.appends.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    this.compactIfDrained();
+                    continue;
+                }
+
+                group.add(first);
+                this.appends.drainTo(group, MAX_GROUP - 1);
+                this.writeGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                LOGGER.error("Could not append {} sales to the write-ahead log", group.size(), e);
+                group.forEach(x -> x.result.completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void writeGroup(List<PendingAppend> group) throws IOException {
+        long start = this.channel.position();
+        long firstSequence = this.lastSequence + 1;
+
+        List<SaleLogEntry> entries = new ArrayList<>(group.size());
+        List<byte[]> payloads = new ArrayList<>(group.size());
+        int size = 0;
+        for (PendingAppend pending : group) {
+            pending.entry.setSequence(++this.lastSequence);
+            byte[] payload = this.objectMapper.writeValueAsBytes(pending.entry);
+            entries.add(pending.entry);
+            payloads.add(payload);
+            size += HEADER_BYTES + payload.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] payload : payloads) {
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        }
+        buffer.flip();
+
+        try {
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+            this.channel.force(false);
+        } catch (IOException e) {
+            // never leave a half-written group in front of later appends
+            this.channel.truncate(start);
+            this.channel.position(start);
+            this.lastSequence = firstSequence - 1;
+            throw e;
+        }
+
+        this.durableListener.accept(entries);
+        for (PendingAppend pending : group) {
+            pending.result.complete(pending.entry);
+        }
+    }
+
+    private void compactIfDrained() throws IOException {
+        if (this.drainedThrough == this.lastSequence && this.channel.size() >= this.compactBytes) {
+            this.channel.truncate(0);
+            this.channel.position(0);
+            this.channel.force(true);
+        }
+    }
+
+    private void recover(long checkpoint) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = 0;
+        long size = this.channel.size();
+
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            this.channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > size) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            this.channel.read(payload, position + HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            SaleLogEntry entry = this.objectMapper.readValue(payload.array(), SaleLogEntry.class);
+            this.lastSequence = entry.getSequence();
+            if (entry.getSequence() > checkpoint) {
+                this.recovered.add(entry);
+            }
+            position += HEADER_BYTES + length;
+        }
+
+        if (position < size) {
+            LOGGER.warn("Cutting off {} bytes of torn sale log tail", size - position);
+            this.channel.truncate(position);
+        }
+        this.channel.position(position);
+    }
+
+    private static class PendingAppend {
+        private final SaleLogEntry entry;
+
+        private final CompletableFuture<SaleLogEntry> result = new CompletableFuture<>();
+
+        private PendingAppend(SaleLogEntry entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package org.softuni.cardealer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.CarSale;
+import org.softuni.cardealer.domain.entities.Customer;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.PartSale;
+import org.softuni.cardealer.domain.entities.Sale;
+import org.softuni.cardealer.repository.CarRepository;
+import org.softuni.cardealer.repository.CarSaleRepository;
+import org.softuni.cardealer.repository.CustomerRepository;
+import org.softuni.cardealer.repository.PartRepository;
+import org.softuni.cardealer.repository.PartSaleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind recording of sales. A sale is acknowledged as soon as it is
+ * durably in the {@link SaleWriteAheadLog}; a background thread drains the
+ * log into {@code car_sales} and {@code part_sales} with JDBC batches and
+ * updates the sales rollups in the same transaction.
+ * <p>
+ * After every committed batch the last written sequence number is saved as
+ * a checkpoint. On startup everything after the checkpoint is replayed;
+ * sales whose ids are already in the database are skipped, so a crash
+ * between commit and checkpoint does not record a sale twice.
+ * <p>
+ * Sales are only logged when their customer, car or part exists. A logged
+ * sale the database still rejects, say because its customer was deleted in
+ * the meantime, is moved to a dead-letter file so that it cannot hold up the
+ * sales logged after it.
+ */
+@Component
+@ConditionalOnProperty(name = "cardealer.sales.write-behind.enabled", havingValue = "true")
+public class SaleWriteBehindWriter implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SaleWriteBehindWriter.class);
+
+    private static final String LOG_FILE = "sales.wal";
+
+    private static final String CHECKPOINT_FILE = "sales.checkpoint";
+
+    private static final String DEAD_LETTER_FILE = "sales.dead-letter";
+
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION = "23";
+
+    private static final int MAX_PENDING = 100_000;
+
+    private static final long RETRY_DELAY_MILLIS = 5_000;
+
+    private static final String INSERT_CAR_SALE =
+            "INSERT INTO car_sales (id, discount, customer_id, sold_on, car_id) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PART_SALE =
+            "INSERT INTO part_sales (id, discount, customer_id, sold_on, quantity, part_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final CarSaleRepository carSaleRepository;
+    private final PartSaleRepository partSaleRepository;
+    private final CustomerRepository customerRepository;
+    private final CarRepository carRepository;
+    private final PartRepository partRepository;
+    private final SalesRollupService salesRollupService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long compactBytes;
+
+    private final BlockingQueue<SaleLogEntry> pending = new LinkedBlockingQueue<>(MAX_PENDING);
+
+    private volatile boolean running;
+    private SaleWriteAheadLog log;
+    private Thread drainer;
+
+    @Autowired
+    public SaleWriteBehindWriter(CarSaleRepository carSaleRepository, PartSaleRepository partSaleRepository,
+                                 CustomerRepository customerRepository, CarRepository carRepository,
+                                 PartRepository partRepository, SalesRollupService salesRollupService, EntityManager entityManager,
+                                 ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                 @Value("${cardealer.sales.write-behind.directory}") String directory,
+                                 @Value("${cardealer.sales.write-behind.batch-size:500}") int batchSize,
+                                 @Value("${cardealer.sales.write-behind.flush-interval-ms:200}") long flushIntervalMillis,
+                                 @Value("${cardealer.sales.write-behind.compact-bytes:67108864}") long compactBytes) {
+        this.carSaleRepository = carSaleRepository;
+        this.partSaleRepository = partSaleRepository;
+        this.customerRepository = customerRepository;
+        this.carRepository = carRepository;
+        this.partRepository = partRepository;
+        this.salesRollupService = salesRollupService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.compactBytes = compactBytes;
+    }
+
+    /**
+     * Blocks until the sale is durably logged, or fails when it was not; it
+     * reaches the database later.
+     */
+    public CarSale append(CarSale carSale) {
+        SaleLogEntry entry = toEntry(carSale, SaleLogEntry.CAR);
+        entry.setCarId(carSale.getCar() == null ? null : carSale.getCar().getId());
+        requireExisting("car", entry.getCarId(), this.carRepository);
+        this.append(entry);
+
+        return carSale;
+    }
+
+    /**
+     * Blocks until the sale is durably logged, or fails when it was not; it
+     * reaches the database later.
+     */
+    public PartSale append(PartSale partSale) {
+        SaleLogEntry entry = toEntry(partSale, SaleLogEntry.PART);
+        entry.setPartId(partSale.getPart() == null ? null : partSale.getPart().getId());
+        entry.setQuantity(partSale.getQuantity());
+        requireExisting("part", entry.getPartId(), this.partRepository);
+        this.append(entry);
+
+        return partSale;
+    }
+
+    @Override
+    public synchronized void start() {
+        try {
+            Files.createDirectories(this.directory);
+            long checkpoint = this.readCheckpoint();
+            this.log = new SaleWriteAheadLog(this.directory.resolve(LOG_FILE), this.objectMapper,
+                    checkpoint, this.compactBytes, this::enqueue);
+
+            List<SaleLogEntry> recovered = this.log.getRecovered();
+            if (!recovered.isEmpty()) {
+                LOGGER.info("Replaying {} logged sales after checkpoint {}", recovered.size(), checkpoint);
+                this.enqueue(recovered);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the sale write-ahead log in " + this.directory, e);
+        }
+
+        this.running = true;
+        this.drainer = new Thread(this::drainLoop, "sale-wal-drainer");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!this.running) {
+            return;
+        }
+
+        try {
+            this.log.close();
+            this.running = false;
+            this.drainer.join();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close the sale write-ahead log", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    private void append(SaleLogEntry entry) {
+        if (!this.running) {
+            throw new IllegalStateException("Write-behind sale recording is not running");
+        }
+        requireExisting("customer", entry.getCustomerId(), this.customerRepository);
+
+        try {
+            this.log.append(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log sale " + entry.getId(), e);
+        }
+    }
+
+    private void enqueue(List<SaleLogEntry> entries) {
+        try {
+            for (SaleLogEntry entry : entries) {
+                this.pending.put(entry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<SaleLogEntry> batch = new ArrayList<>(this.batchSize);
+        while (this.running || !this.pending.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    SaleLogEntry first = this.pending.poll(this.flushIntervalMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    this.pending.drainTo(batch, this.batchSize - 1);
+                }
+
+                this.writeBatch(batch);
+                long sequence = batch.get(batch.size() - 1).getSequence();
+                this.writeCheckpoint(sequence);
+                this.log.drainedThrough(sequence);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                if (!this.running) {
+                    LOGGER.warn("Leaving {} sales in the write-ahead log for the next start", batch.size(), e);
+                    return;
+                }
+
+                LOGGER.warn("Could not write {} logged sales, retrying in {} ms", batch.size(), RETRY_DELAY_MILLIS, e);
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction. When a sale violates a constraint
+     * the batch is retried one sale at a time and the offending sales are
+     * moved to the dead-letter file; any other failure leaves the batch for a
+     * retry.
+     */
+    private void writeBatch(List<SaleLogEntry> batch) throws IOException {
+        try {
+            this.transactionTemplate.execute(status -> this.insert(batch));
+        } catch (RuntimeException e) {
+            if (!isConstraintViolation(e)) {
+                throw e;
+            }
+
+            for (SaleLogEntry entry : batch) {
+                try {
+                    this.transactionTemplate.execute(status -> this.insert(Collections.singletonList(entry)));
+                } catch (RuntimeException rejected) {
+                    if (!isConstraintViolation(rejected)) {
+                        throw rejected;
+                    }
+                    this.deadLetter(entry, rejected);
+                }
+            }
+        }
+    }
+
+    private void deadLetter(SaleLogEntry entry, RuntimeException rejected) throws IOException {
+        String reason = NestedExceptionUtils.getMostSpecificCause(rejected).getMessage();
+        LOGGER.error("Moving logged {} sale {} (sequence {}) to {}: {}", entry.getType(), entry.getId(),
+                entry.getSequence(), DEAD_LETTER_FILE, reason);
+
+        Map<String, Object> letter = new LinkedHashMap<>();
+        letter.put("reason", reason);
+        letter.put("sale", entry);
+        byte[] line = (this.objectMapper.writeValueAsString(letter) + System.lineSeparator())
+                .getBytes(StandardCharsets.UTF_8);
+        Files.write(this.directory.resolve(DEAD_LETTER_FILE), line,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+    }
+
+    /**
+     * Neither {@code doWork} nor the transaction template translate JDBC
+     * failures, so constraint violations are recognized by their SQL state
+     * wherever they sit in the cause chain.
+     */
+    private static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException && ((SQLException) cause).getSQLState() != null
+                    && ((SQLException) cause).getSQLState().startsWith(INTEGRITY_CONSTRAINT_VIOLATION)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void requireExisting(String kind, String id, JpaRepository<?, String> repository) {
+        if (id != null && !repository.existsById(id)) {
+            throw new IllegalArgumentException(String.format("Unknown %s '%s'", kind, id));
+        }
+    }
+
+    private int insert(List<SaleLogEntry> entries) {
+        List<SaleLogEntry> carSales = this.unwritten(entries, SaleLogEntry.CAR);
+        List<SaleLogEntry> partSales = this.unwritten(entries, SaleLogEntry.PART);
+
+        SessionImplementor session = this.entityManager.unwrap(SessionImplementor.class);
+        Type idType = session.getFactory().getMetamodel().entityPersister(CarSale.class).getIdentifierType();
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_CAR_SALE)) {
+                for (SaleLogEntry entry : carSales) {
+                    this.bindSale(statement, entry, idType, session);
+                    idType.nullSafeSet(statement, entry.getCarId(), 5, session);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_PART_SALE)) {
+                for (SaleLogEntry entry : partSales) {
+                    this.bindSale(statement, entry, idType, session);
+                    statement.setObject(5, entry.getQuantity(), Types.INTEGER);
+                    idType.nullSafeSet(statement, entry.getPartId(), 6, session);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+
+        carSales.forEach(x -> this.salesRollupService.recordCarSale(toCarSale(x)));
+        partSales.forEach(x -> this.salesRollupService.recordPartSale(toPartSale(x)));
+
+        return carSales.size() + partSales.size();
+    }
+
+    private List<SaleLogEntry> unwritten(List<SaleLogEntry> entries, String type) {
+        List<SaleLogEntry> ofType = entries.stream()
+                .filter(x -> type.equals(x.getType()))
+                .collect(Collectors.toList());
+        if (ofType.isEmpty()) {
+            return ofType;
+        }
+
+        Set<String> ids = ofType.stream().map(SaleLogEntry::getId).collect(Collectors.toSet());
+        Set<String> written = new HashSet<>(SaleLogEntry.CAR.equals(type)
+                ? this.carSaleRepository.findExistingIds(ids)
+                : this.partSaleRepository.findExistingIds(ids));
+
+        return ofType.stream()
+                .filter(x -> !written.contains(x.getId()))
+                .collect(Collectors.toList());
+    }
+
+    private void bindSale(PreparedStatement statement, SaleLogEntry entry, Type idType,
+                          SessionImplementor session) throws SQLException {
+        idType.nullSafeSet(statement, entry.getId(), 1, session);
+        statement.setObject(2, entry.getDiscount(), Types.DOUBLE);
+        idType.nullSafeSet(statement, entry.getCustomerId(), 3, session);
+        statement.setObject(4, entry.getSoldOn() == null ? null : Date.valueOf(entry.getSoldOn()),
+                Types.DATE);
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path checkpoint = this.directory.resolve(CHECKPOINT_FILE);
+
+        return Files.exists(checkpoint) ? ByteBuffer.wrap(Files.readAllBytes(checkpoint)).getLong() : 0;
+    }
+
+    private void writeCheckpoint(long sequence) throws IOException {
+        Path temporary = this.directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(sequence);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, this.directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static SaleLogEntry toEntry(Sale sale, String type) {
+        SaleLogEntry entry = new SaleLogEntry();
+        entry.setType(type);
+        entry.setId(sale.getId());
+        entry.setCustomerId(sale.getCustomer() == null ? null : sale.getCustomer().getId());
+        entry.setDiscount(sale.getDiscount());
+        entry.setSoldOn(sale.getSoldOn());
+
+        return entry;
+    }
+
+    private static CarSale toCarSale(SaleLogEntry entry) {
+        CarSale carSale = new CarSale();
+        fillSale(carSale, entry);
+        if (entry.getCarId() != null) {
+            Car car = new Car();
+            car.setId(entry.getCarId());
+            carSale.setCar(car);
+        }
+
+        return carSale;
+    }
+
+    private static PartSale toPartSale(SaleLogEntry entry) {
+        PartSale partSale = new PartSale();
+        fillSale(partSale, entry);
+        partSale.setQuantity(entry.getQuantity());
+        if (entry.getPartId() != null) {
+            Part part = new Part();
+            part.setId(entry.getPartId());
+            partSale.setPart(part);
+        }
+
+        return partSale;
+    }
+
+    private static void fillSale(Sale sale, SaleLogEntry entry) {
+        sale.setId(entry.getId());
+        sale.setDiscount(entry.getDiscount());
+        sale.setSoldOn(entry.getSoldOn());
+        if (entry.getCustomerId() != null) {
+            Customer customer = new Customer();
+            customer.setId(entry.getCustomerId());
+            sale.setCustomer(customer);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.softuni.cardealer.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes the sales rollups on startup when the application is launched
+ * with {@code --rebuild-sales-rollups}.
+ */
+@Component
+public class SalesRollupRebuildRunner implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalesRollupRebuildRunner.class);
+
+    static final String OPTION = "rebuild-sales-rollups";
+
+    private final SalesRollupService salesRollupService;
+
+    @Autowired
+    public SalesRollupRebuildRunner(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long sales = this.salesRollupService.rebuild();
+        LOGGER.info("Rebuilt sales rollups from {} sales in {} ms", sales, System.currentTimeMillis() - start);
+    }
+}
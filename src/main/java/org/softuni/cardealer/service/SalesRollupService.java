@@ -0,0 +1,34 @@
+package org.softuni.cardealer.service;
+
+import org.softuni.cardealer.domain.entities.CarSale;
+import org.softuni.cardealer.domain.entities.PartSale;
+import org.softuni.cardealer.domain.entities.SalesRollupDimension;
+import org.softuni.cardealer.domain.models.service.SalesRollupServiceModel;
+
+import java.util.List;
+
+public interface SalesRollupService {
+
+    /**
+     * Adds a car sale to the rollups; must run in the transaction that saves the sale.
+     */
+    void recordCarSale(CarSale carSale);
+
+    /**
+     * Adds a part sale to the rollups; must run in the transaction that saves the sale.
+     */
+    void recordPartSale(PartSale partSale);
+
+    SalesRollupServiceModel findRollup(SalesRollupDimension dimension, String key);
+
+    List<SalesRollupServiceModel> findAll(SalesRollupDimension dimension);
+
+    /**
+     * Recomputes every rollup from the sales tables, pricing past sales at
+     * the current part prices. Sales recorded meanwhile wait for the rebuild
+     * to commit.
+     *
+     * @return the number of sales read
+     */
+    long rebuild();
+}
@@ -0,0 +1,319 @@
+package org.softuni.cardealer.service;
+
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.CarSale;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.PartSale;
+import org.softuni.cardealer.domain.entities.SalesRollup;
+import org.softuni.cardealer.domain.entities.SalesRollupDimension;
+import org.softuni.cardealer.domain.entities.SalesRollupKey;
+import org.softuni.cardealer.domain.models.service.SalesRollupServiceModel;
+import org.softuni.cardealer.domain.models.view.CarSaleRollupViewModel;
+import org.softuni.cardealer.mapping.DtoMapper;
+import org.softuni.cardealer.repository.CarRepository;
+import org.softuni.cardealer.repository.CarSaleRepository;
+import org.softuni.cardealer.repository.PartRepository;
+import org.softuni.cardealer.repository.PartSaleRepository;
+import org.softuni.cardealer.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Sale revenue is the price of what was sold times {@code 1 - discount},
+ * rounded to cents per line. A car sale counts each of the car's parts
+ * towards the part and supplier rollups.
+ * <p>
+ * Sales do not keep the prices they were made at, so recording a sale uses
+ * the prices of the moment while a rebuild prices every past sale at the
+ * current part prices and car contents.
+ * <p>
+ * A rebuild holds the write side of {@link #rebuildLock} and recording a sale
+ * the read side, each until its transaction completes, so no sale commits
+ * between a rebuild reading the sales and replacing the rollups. The lock is
+ * local to this instance: with several instances, rebuild while only one of
+ * them records sales.
+ */
+@Service
+public class SalesRollupServiceImpl implements SalesRollupService {
+    private static final int STREAM_CLEAR_INTERVAL = 500;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final CarSaleRepository carSaleRepository;
+    private final PartSaleRepository partSaleRepository;
+    private final CarRepository carRepository;
+    private final PartRepository partRepository;
+    private final DtoMapper dtoMapper;
+    private final EntityManager entityManager;
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public SalesRollupServiceImpl(SalesRollupRepository salesRollupRepository, CarSaleRepository carSaleRepository,
+                                  PartSaleRepository partSaleRepository, CarRepository carRepository,
+                                  PartRepository partRepository, DtoMapper dtoMapper, EntityManager entityManager) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.carSaleRepository = carSaleRepository;
+        this.partSaleRepository = partSaleRepository;
+        this.carRepository = carRepository;
+        this.partRepository = partRepository;
+        this.dtoMapper = dtoMapper;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCarSale(CarSale carSale) {
+        holdUntilCompletion(this.rebuildLock.readLock());
+
+        List<Part> parts = carSale.getCar() == null
+                ? Collections.emptyList()
+                : this.carRepository.findById(carSale.getCar().getId())
+                .map(Car::getParts)
+                .orElse(Collections.emptyList());
+
+        this.contributionsOf(carSale.getCustomer() == null ? null : carSale.getCustomer().getId(),
+                carSale.getSoldOn(), carSale.getDiscount(), parts)
+                .values()
+                .forEach(this.salesRollupRepository::increment);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPartSale(PartSale partSale) {
+        holdUntilCompletion(this.rebuildLock.readLock());
+
+        this.contributionsOf(partSale).values().forEach(this.salesRollupRepository::increment);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SalesRollupServiceModel findRollup(SalesRollupDimension dimension, String key) {
+        SalesRollup rollup = this.salesRollupRepository.findById(new SalesRollupKey(dimension, key))
+                .orElseGet(() -> emptyRollup(new SalesRollupKey(dimension, key)));
+
+        return this.dtoMapper.map(rollup, SalesRollupServiceModel.class);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesRollupServiceModel> findAll(SalesRollupDimension dimension) {
+        return this.salesRollupRepository.findAllByIdDimensionOrderByRevenueDesc(dimension)
+                .stream()
+                .map(x -> this.dtoMapper.map(x, SalesRollupServiceModel.class))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public long rebuild() {
+        holdUntilCompletion(this.rebuildLock.writeLock());
+
+        Map<SalesRollupKey, SalesRollup> totals = new HashMap<>();
+        long sales = 0;
+
+        try (Stream<CarSaleRollupViewModel> carSales = this.carSaleRepository.streamAllRollupViews()) {
+            List<CarSaleRollupViewModel> chunk = new ArrayList<>(STREAM_CLEAR_INTERVAL);
+            for (Iterator<CarSaleRollupViewModel> iterator = carSales.iterator(); iterator.hasNext(); ) {
+                chunk.add(iterator.next());
+                if (chunk.size() == STREAM_CLEAR_INTERVAL || !iterator.hasNext()) {
+                    this.accumulateCarSales(totals, chunk);
+                    sales += chunk.size();
+                    chunk.clear();
+                    this.entityManager.clear();
+                }
+            }
+        }
+
+        try (Stream<PartSale> partSales = this.partSaleRepository.streamAll()) {
+            for (Iterator<PartSale> iterator = partSales.iterator(); iterator.hasNext(); ) {
+                this.contributionsOf(iterator.next()).values().forEach(x -> accumulate(totals, x));
+                this.clearEvery(++sales);
+            }
+        }
+
+        this.salesRollupRepository.deleteAllInBulk();
+
+        long persisted = 0;
+        for (SalesRollup rollup : totals.values()) {
+            this.entityManager.persist(rollup);
+            if (++persisted % STREAM_CLEAR_INTERVAL == 0) {
+                this.entityManager.flush();
+                this.entityManager.clear();
+            }
+        }
+
+        return sales;
+    }
+
+    /**
+     * Loads the cars of a chunk of sales with their parts and suppliers in one
+     * query instead of once per sale.
+     */
+    private void accumulateCarSales(Map<SalesRollupKey, SalesRollup> totals, List<CarSaleRollupViewModel> carSales) {
+        Set<String> carIds = carSales.stream()
+                .map(CarSaleRollupViewModel::getCarId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, List<Part>> partsByCar = carIds.isEmpty()
+                ? Collections.emptyMap()
+                : this.carRepository.findAllWithPartsByIdIn(carIds).stream()
+                .collect(Collectors.toMap(Car::getId, Car::getParts));
+
+        for (CarSaleRollupViewModel carSale : carSales) {
+            this.contributionsOf(carSale.getCustomerId(), carSale.getSoldOn(), carSale.getDiscount(),
+                    partsByCar.getOrDefault(carSale.getCarId(), Collections.emptyList()))
+                    .values()
+                    .forEach(x -> accumulate(totals, x));
+        }
+    }
+
+    private Map<SalesRollupKey, SalesRollup> contributionsOf(String customerId, LocalDate soldOn, Double discount,
+                                                             List<Part> parts) {
+        Map<SalesRollupKey, SalesRollup> contributions = new HashMap<>();
+        BigDecimal factor = discountFactor(discount);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Part part : parts) {
+            BigDecimal revenue = revenue(part.getPrice(), 1, factor);
+            add(contributions, contribution(SalesRollupDimension.PART, part.getId(), 1, revenue));
+            add(contributions, contribution(SalesRollupDimension.SUPPLIER, part.getSupplier().getId(), 1, revenue));
+            total = total.add(revenue);
+        }
+
+        this.addSaleWide(contributions, customerId, soldOn, 1, total);
+
+        return contributions;
+    }
+
+    private Map<SalesRollupKey, SalesRollup> contributionsOf(PartSale partSale) {
+        Map<SalesRollupKey, SalesRollup> contributions = new HashMap<>();
+        int quantity = partSale.getQuantity() == null ? 0 : partSale.getQuantity();
+
+        Part part = partSale.getPart() == null
+                ? null
+                : this.partRepository.findById(partSale.getPart().getId()).orElse(null);
+
+        BigDecimal revenue = BigDecimal.ZERO;
+        if (part != null) {
+            revenue = revenue(part.getPrice(), quantity, discountFactor(partSale.getDiscount()));
+            add(contributions, contribution(SalesRollupDimension.PART, part.getId(), quantity, revenue));
+            add(contributions, contribution(SalesRollupDimension.SUPPLIER, part.getSupplier().getId(), quantity, revenue));
+        }
+
+        this.addSaleWide(contributions, partSale.getCustomer() == null ? null : partSale.getCustomer().getId(),
+                partSale.getSoldOn(), quantity, revenue);
+
+        return contributions;
+    }
+
+    private void addSaleWide(Map<SalesRollupKey, SalesRollup> contributions, String customerId, LocalDate soldOn,
+                             long quantity, BigDecimal revenue) {
+        if (customerId != null) {
+            add(contributions, contribution(SalesRollupDimension.CUSTOMER, customerId, quantity, revenue));
+        }
+
+        if (soldOn != null) {
+            add(contributions, contribution(SalesRollupDimension.DAY, soldOn.toString(), quantity, revenue));
+        }
+    }
+
+    /**
+     * Takes {@code lock} for the rest of the current transaction, once however
+     * many sales the transaction records.
+     */
+    private static void holdUntilCompletion(Lock lock) {
+        if (TransactionSynchronizationManager.hasResource(lock)) {
+            return;
+        }
+
+        lock.lock();
+        TransactionSynchronizationManager.bindResource(lock, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(lock);
+                lock.unlock();
+            }
+        });
+    }
+
+    private void clearEvery(long processed) {
+        if (processed % STREAM_CLEAR_INTERVAL == 0) {
+            this.entityManager.clear();
+        }
+    }
+
+    /**
+     * Merges one sale's contribution into {@code totals}. Within a single sale a
+     * key repeats when a car has several parts from one supplier, which must
+     * still count as one sale.
+     */
+    private static void add(Map<SalesRollupKey, SalesRollup> totals, SalesRollup contribution) {
+        SalesRollup total = totals.get(contribution.getId());
+        if (total == null) {
+            totals.put(contribution.getId(), contribution);
+            return;
+        }
+
+        total.setQuantity(total.getQuantity() + contribution.getQuantity());
+        total.setRevenue(total.getRevenue().add(contribution.getRevenue()));
+    }
+
+    private static void accumulate(Map<SalesRollupKey, SalesRollup> totals, SalesRollup contribution) {
+        SalesRollup total = totals.putIfAbsent(contribution.getId(), contribution);
+        if (total == null) {
+            return;
+        }
+
+        total.setSalesCount(total.getSalesCount() + contribution.getSalesCount());
+        total.setQuantity(total.getQuantity() + contribution.getQuantity());
+        total.setRevenue(total.getRevenue().add(contribution.getRevenue()));
+    }
+
+    private static SalesRollup contribution(SalesRollupDimension dimension, String key, long quantity, BigDecimal revenue) {
+        SalesRollup rollup = emptyRollup(new SalesRollupKey(dimension, key));
+        rollup.setSalesCount(1);
+        rollup.setQuantity(quantity);
+        rollup.setRevenue(revenue);
+
+        return rollup;
+    }
+
+    private static SalesRollup emptyRollup(SalesRollupKey key) {
+        SalesRollup rollup = new SalesRollup();
+        rollup.setId(key);
+        rollup.setRevenue(BigDecimal.ZERO);
+
+        return rollup;
+    }
+
+    private static BigDecimal discountFactor(Double discount) {
+        return BigDecimal.ONE.subtract(BigDecimal.valueOf(discount == null ? 0 : discount));
+    }
+
+    private static BigDecimal revenue(BigDecimal price, long quantity, BigDecimal factor) {
+        return price.multiply(BigDecimal.valueOf(quantity))
+                .multiply(factor)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -1,8 +1,11 @@
 package org.softuni.cardealer.service;
 
 import org.softuni.cardealer.domain.models.service.SupplierServiceModel;
+import org.softuni.cardealer.domain.models.view.SupplierListViewModel;
+import org.softuni.cardealer.domain.models.view.SupplierSuggestionViewModel;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface SupplierService {
 
@@ -15,4 +18,10 @@ public interface SupplierService {
     SupplierServiceModel findSupplierById(String id);
 
     List<SupplierServiceModel> findAll();
+
+    List<SupplierListViewModel> findAllViews();
+
+    List<SupplierSuggestionViewModel> suggestSuppliers(String prefix, int limit);
+
+    void forEachSupplier(Consumer<? super SupplierServiceModel> action);
 }
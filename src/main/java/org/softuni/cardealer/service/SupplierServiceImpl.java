@@ -1,33 +1,46 @@
 package org.softuni.cardealer.service;
 
-import org.modelmapper.ModelMapper;
 import org.softuni.cardealer.domain.entities.Supplier;
 import org.softuni.cardealer.domain.models.service.SupplierServiceModel;
+import org.softuni.cardealer.domain.models.view.SupplierListViewModel;
+import org.softuni.cardealer.domain.models.view.SupplierSuggestionViewModel;
+import org.softuni.cardealer.mapping.DtoMapper;
 import org.softuni.cardealer.repository.SupplierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SupplierServiceImpl implements SupplierService {
+    private static final int STREAM_CLEAR_INTERVAL = 500;
 
     private final SupplierRepository supplierRepository;
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
+    private final EntityManager entityManager;
+    private final CatalogueSearchIndex searchIndex;
 
     @Autowired
-    public SupplierServiceImpl(SupplierRepository supplierRepository, ModelMapper modelMapper) {
+    public SupplierServiceImpl(SupplierRepository supplierRepository, DtoMapper dtoMapper, EntityManager entityManager,
+                               CatalogueSearchIndex searchIndex) {
         this.supplierRepository = supplierRepository;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.entityManager = entityManager;
+        this.searchIndex = searchIndex;
     }
 
     @Override
     public SupplierServiceModel saveSupplier(SupplierServiceModel supplierServiceModel) {
-        Supplier supplier = this.modelMapper.map(supplierServiceModel, Supplier.class);
+        Supplier supplier = this.dtoMapper.map(supplierServiceModel, Supplier.class);
         this.supplierRepository.saveAndFlush(supplier);
 
-        return this.modelMapper.map(supplier, SupplierServiceModel.class);
+        return this.dtoMapper.map(supplier, SupplierServiceModel.class);
 
     }
 
@@ -38,7 +51,7 @@ public class SupplierServiceImpl implements SupplierService {
         supplier.setIsImporter(supplierServiceModel.getIsImporter());
         Supplier result = this.supplierRepository.saveAndFlush(supplier);
 
-        return this.modelMapper.map(result, SupplierServiceModel.class);
+        return this.dtoMapper.map(result, SupplierServiceModel.class);
 
     }
 
@@ -47,23 +60,51 @@ public class SupplierServiceImpl implements SupplierService {
         Supplier supplier = this.supplierRepository.findById(id).orElse(null);
         this.supplierRepository.delete(supplier);
 
-        return this.modelMapper.map(supplier, SupplierServiceModel.class);
+        return this.dtoMapper.map(supplier, SupplierServiceModel.class);
 
     }
 
     @Override
+    @Transactional(readOnly = true)
     public SupplierServiceModel findSupplierById(String id) {
         Supplier supplier = this.supplierRepository.findById(id).orElse(null);
 
-        return this.modelMapper.map(supplier, SupplierServiceModel.class);
+        return this.dtoMapper.map(supplier, SupplierServiceModel.class);
 
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<SupplierServiceModel> findAll() {
         return this.supplierRepository.findAll()
                 .stream()
-                .map(x -> this.modelMapper.map(x, SupplierServiceModel.class))
+                .map(x -> this.dtoMapper.map(x, SupplierServiceModel.class))
                 .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SupplierListViewModel> findAllViews() {
+        return this.supplierRepository.findAllViewsBy();
+    }
+
+    @Override
+    public List<SupplierSuggestionViewModel> suggestSuppliers(String prefix, int limit) {
+        return this.searchIndex.suggestSuppliers(prefix, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachSupplier(Consumer<? super SupplierServiceModel> action) {
+        try (Stream<Supplier> suppliers = this.supplierRepository.streamAll()) {
+            int streamed = 0;
+            for (Iterator<Supplier> iterator = suppliers.iterator(); iterator.hasNext(); ) {
+                action.accept(this.dtoMapper.map(iterator.next(), SupplierServiceModel.class));
+
+                if (++streamed % STREAM_CLEAR_INTERVAL == 0) {
+                    this.entityManager.clear();
+                }
+            }
+        }
+    }
 }
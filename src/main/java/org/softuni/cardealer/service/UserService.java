@@ -1,11 +1,12 @@
 package org.softuni.cardealer.service;
 
 import org.softuni.cardealer.domain.models.service.UserServiceModel;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.List;
 
-public interface UserService extends UserDetailsService {
+public interface UserService extends UserDetailsService, UserDetailsPasswordService {
     UserServiceModel saveUser(UserServiceModel userServiceModel);
 
     List<UserServiceModel> findAllUsers();
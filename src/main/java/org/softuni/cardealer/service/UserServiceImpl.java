@@ -1,15 +1,17 @@
 package org.softuni.cardealer.service;
 
-import org.modelmapper.ModelMapper;
 import org.softuni.cardealer.domain.entities.User;
 import org.softuni.cardealer.domain.models.service.UserServiceModel;
+import org.softuni.cardealer.mapping.DtoMapper;
 import org.softuni.cardealer.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -18,43 +20,83 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
 
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
 
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final PasswordEncoder passwordEncoder;
+
+    private final UserCache userCache;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, ModelMapper modelMapper, BCryptPasswordEncoder bCryptPasswordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, DtoMapper dtoMapper, PasswordEncoder passwordEncoder,
+                           UserCache userCache) {
         this.userRepository = userRepository;
-        this.modelMapper = modelMapper;
-        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.dtoMapper = dtoMapper;
+        this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
     }
 
+    /**
+     * Returns an immutable snapshot of the user rather than the entity, and
+     * serves repeated lookups from the {@link UserCache}.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return this.userRepository.findByUsername(username)
+        UserDetails cached = this.userCache.getUserFromCache(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        User user = this.userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("There is no user with the given username."));
+        UserDetails snapshot = snapshotOf(user);
+        this.userCache.putUserInCache(snapshot);
+
+        return snapshot;
+    }
+
+    /**
+     * Called after a successful login when the stored hash was made with a
+     * different work factor than the configured one.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = this.userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("There is no user with the given username."));
+        user.setPassword(newPassword);
+        this.userRepository.save(user);
+
+        return snapshotOf(user);
     }
 
     @Override
     public UserServiceModel saveUser(UserServiceModel userServiceModel) {
-        userServiceModel.setPassword(this.bCryptPasswordEncoder.encode(userServiceModel.getPassword()));
+        userServiceModel.setPassword(this.passwordEncoder.encode(userServiceModel.getPassword()));
+
+        User saved = this.userRepository.save(this.dtoMapper.map(userServiceModel, User.class));
 
-        return this.modelMapper.map(
-                this.userRepository.save(
-                        this.modelMapper.map(userServiceModel, User.class)), UserServiceModel.class);
+        return this.dtoMapper.map(saved, UserServiceModel.class);
     }
 
     @Override
     public List<UserServiceModel> findAllUsers() {
         return this.userRepository.findAll()
                 .stream()
-                .map(x -> this.modelMapper.map(x, UserServiceModel.class))
+                .map(x -> this.dtoMapper.map(x, UserServiceModel.class))
                 .collect(Collectors.toList());
     }
 
     @Override
     public UserServiceModel findUserByUsername(String username) {
-        return this.modelMapper.map(Objects.requireNonNull(this.userRepository.findByUsername(username)
+        return this.dtoMapper.map(Objects.requireNonNull(this.userRepository.findByUsername(username)
                 .orElse(null)), UserServiceModel.class);
     }
+
+    private static UserDetails snapshotOf(User user) {
+        return org.springframework.security.core.userdetails.User
+                .withUsername(user.getUsername())
+                .password(user.getPassword())
+                .authorities(Collections.emptyList())
+                .disabled(!user.isEnabled())
+                .build();
+    }
 }
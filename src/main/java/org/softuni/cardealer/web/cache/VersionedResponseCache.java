@@ -0,0 +1,148 @@
+package org.softuni.cardealer.web.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.softuni.cardealer.datasource.PrimaryReads;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Holds the last serialized body of a response together with the data
+ * version it was built from. The version has to be read before the data
+ * is loaded, so a concurrent write can only make the cached body newer
+ * than its version, never older. A body built from an older version than
+ * the cached one, by a request that was slower than a later one, is not
+ * stored over it. The rows are read from the primary, since a replica that
+ * has not caught up with the version would make the body older than it.
+ * <p>
+ * On a miss the rows are streamed straight to the client as a JSON array
+ * and copied aside only while the body stays under {@code maxCachedBytes};
+ * larger catalogues are streamed every time instead of being held in memory.
+ */
+public class VersionedResponseCache {
+    private final ObjectMapper objectMapper;
+
+    private final int maxCachedBytes;
+
+    private final AtomicReference<Entry> entry = new AtomicReference<>();
+
+    public VersionedResponseCache(ObjectMapper objectMapper, int maxCachedBytes) {
+        this.objectMapper = objectMapper;
+        this.maxCachedBytes = maxCachedBytes;
+    }
+
+    public <T> void writeArray(long version, OutputStream out, RowSource<T> rows) throws IOException {
+        Entry current = this.entry.get();
+        if (current != null && current.version == version) {
+            out.write(current.body);
+            return;
+        }
+
+        CappedBuffer copy = new CappedBuffer(this.maxCachedBytes);
+        try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(new TeeOutputStream(out, copy))) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            try {
+                PrimaryReads.run(() -> rows.forEach(x -> {
+                    try {
+                        generator.writeObject(x);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+        }
+
+        if (!copy.isOverflowed()) {
+            Entry built = new Entry(version, copy.toByteArray());
+            this.entry.accumulateAndGet(built, (x, y) -> x == null || x.version <= y.version ? y : x);
+        }
+    }
+
+    @FunctionalInterface
+    public interface RowSource<T> {
+        void forEach(Consumer<T> row);
+    }
+
+    private static class Entry {
+        private final long version;
+
+        private final byte[] body;
+
+        private Entry(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+
+    private static class TeeOutputStream extends OutputStream {
+        private final OutputStream first;
+
+        private final OutputStream second;
+
+        private TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.first.write(b);
+            this.second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.first.write(b, off, len);
+            this.second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.first.flush();
+        }
+    }
+
+    private static class CappedBuffer extends ByteArrayOutputStream {
+        private final int capacity;
+
+        private boolean overflowed;
+
+        private CappedBuffer(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (this.overflowed) {
+                return;
+            }
+
+            if (this.count + len > this.capacity) {
+                this.overflowed = true;
+                this.buf = new byte[0];
+                this.count = 0;
+                return;
+            }
+
+            super.write(b, off, len);
+        }
+
+        private boolean isOverflowed() {
+            return this.overflowed;
+        }
+    }
+}
@@ -1,7 +1,22 @@
 package org.softuni.cardealer.web.controllers;
 
+import org.softuni.cardealer.domain.identifiers.MalformedIdException;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.ModelAndView;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
 public abstract class BaseController {
     protected ModelAndView view(String view, ModelAndView modelAndView) {
         modelAndView.setViewName(view);
@@ -16,4 +31,61 @@ public abstract class BaseController {
     protected ModelAndView redirect(String url) {
         return this.view("redirect:" + url);
     }
+
+    /**
+     * Runs the handler body on one of the bulkhead executors and frees the
+     * servlet thread until it completes. Exceptions thrown by the work reach
+     * the exception handlers as they were thrown, not wrapped in a
+     * {@link CompletionException}.
+     */
+    protected <T> CompletableFuture<T> async(Executor bulkhead, Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture.supplyAsync(work, bulkhead).whenComplete((value, e) -> {
+            if (e == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Like {@link #async(Executor, Supplier)}, but gives up on the work after
+     * the timeout instead of the application-wide async request timeout, and
+     * cancels the task so it does not keep its bulkhead thread. Only for
+     * handlers whose work returns a value: a task that writes the servlet
+     * response itself could still be writing after the timeout has answered.
+     */
+    protected <T> CompletableFuture<T> async(AsyncTaskExecutor bulkhead, long timeoutMillis, Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = bulkhead.submit(() -> {
+            try {
+                result.complete(work.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((value, e) -> {
+            if (e instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+
+        return result;
+    }
+
+    @ExceptionHandler({TaskRejectedException.class, TimeoutException.class})
+    public ResponseEntity<Void> bulkheadFull() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    @ExceptionHandler(MalformedIdException.class)
+    public ResponseEntity<Void> malformedId() {
+        return ResponseEntity.notFound().build();
+    }
 }
@@ -1,30 +1,46 @@
 package org.softuni.cardealer.web.controllers;
 
-import org.modelmapper.ModelMapper;
+import org.softuni.cardealer.config.AsyncBulkheadConfiguration;
 import org.softuni.cardealer.domain.models.binding.AddCarBindingModel;
 import org.softuni.cardealer.domain.models.service.CarServiceModel;
-import org.softuni.cardealer.domain.models.service.PartServiceModel;
+import org.softuni.cardealer.domain.models.view.CarListViewModel;
+import org.softuni.cardealer.domain.models.view.CarSearchViewModel;
+import org.softuni.cardealer.mapping.DtoMapper;
 import org.softuni.cardealer.service.CarService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.validation.Valid;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(value = "/cars")
 public class CarsController extends BaseController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CarService carService;
 
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
+
+    private final AsyncTaskExecutor catalogueReads;
+
+    private final long catalogueReadTimeoutMillis;
 
     @Autowired
-    public CarsController(CarService carService, ModelMapper modelMapper) {
+    public CarsController(CarService carService, DtoMapper dtoMapper,
+                          @Qualifier(AsyncBulkheadConfiguration.CATALOGUE_READS) AsyncTaskExecutor catalogueReads,
+                          @Value("${cardealer.bulkheads.catalogue-reads.timeout-ms:10000}") long catalogueReadTimeoutMillis) {
         this.carService = carService;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.catalogueReads = catalogueReads;
+        this.catalogueReadTimeoutMillis = catalogueReadTimeoutMillis;
     }
 
 
@@ -34,10 +50,7 @@ public class CarsController extends BaseController {
             //TODO: DO SOMETHING
         }
 
-        CarServiceModel modelToSave = this.modelMapper.map(bindingModel, CarServiceModel.class);
-        modelToSave.setParts(bindingModel.getParts().stream().map(x -> new PartServiceModel() {{setId(x);}}).collect(Collectors.toList()));
-
-        this.carService.saveCar(modelToSave);
+        this.carService.saveCar(this.dtoMapper.map(bindingModel, CarServiceModel.class));
 
         return this.redirect("all");
     }
@@ -48,7 +61,7 @@ public class CarsController extends BaseController {
             //TODO: DO SOMETHING
         }
 
-        this.carService.editCar(id, this.modelMapper.map(bindingModel, CarServiceModel.class));
+        this.carService.editCar(id, this.dtoMapper.map(bindingModel, CarServiceModel.class));
 
         return this.redirect("/cars/all");
     }
@@ -60,9 +73,47 @@ public class CarsController extends BaseController {
         return this.redirect("/cars/all");
     }
 
+    @GetMapping("/{id}/details")
+    public CompletableFuture<ModelAndView> carDetails(@PathVariable String id, ModelAndView modelAndView) {
+        return this.async(this.catalogueReads, this.catalogueReadTimeoutMillis, () -> {
+            modelAndView.addObject("car", this.carService.findCarById(id));
+
+            return this.view("fragments/modals/car/car-modals", modelAndView);
+        });
+    }
+
+    @GetMapping("/search")
+    @ResponseBody
+    public List<CarSearchViewModel> searchCars(@RequestParam("q") String query,
+                                               @RequestParam(defaultValue = "10") int limit) {
+        // answered from memory, handing it to a bulkhead would cost more than the lookup
+        return this.carService.searchCars(query, limit);
+    }
+
     @GetMapping("/all")
-    public ModelAndView allCars(ModelAndView modelAndView) {
-        modelAndView.addObject("cars", this.carService.findAll());
+    public CompletableFuture<ModelAndView> allCars(@RequestParam(required = false) Integer size,
+                                                   @RequestParam(required = false) String afterMake,
+                                                   @RequestParam(required = false) String afterId,
+                                                   @RequestParam(required = false) Integer offset,
+                                                   ModelAndView modelAndView) {
+        return this.async(this.catalogueReads, this.catalogueReadTimeoutMillis, () -> this.carsView(size, afterMake, afterId, offset, modelAndView));
+    }
+
+    /**
+     * A keyset page does not know its position, so the number of cars on the
+     * previous pages is carried along in {@code offset} to number the rows.
+     */
+    private ModelAndView carsView(Integer size, String afterMake, String afterId, Integer offset,
+                                  ModelAndView modelAndView) {
+        int pageSize = size == null ? MAX_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<CarListViewModel> cars = this.carService.findPage(afterMake, afterId, pageSize);
+        modelAndView.addObject("cars", cars);
+        modelAndView.addObject("size", pageSize);
+        modelAndView.addObject("offset", offset == null ? 0 : Math.max(0, offset));
+
+        if (cars.size() == pageSize) {
+            modelAndView.addObject("next", cars.get(cars.size() - 1));
+        }
 
         return this.view("all-cars", modelAndView);
     }
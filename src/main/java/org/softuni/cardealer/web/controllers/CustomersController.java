@@ -1,29 +1,42 @@
 package org.softuni.cardealer.web.controllers;
 
-import org.modelmapper.ModelMapper;
+import org.softuni.cardealer.config.AsyncBulkheadConfiguration;
 import org.softuni.cardealer.domain.models.binding.AddCarBindingModel;
 import org.softuni.cardealer.domain.models.binding.AddCustomerBindingModel;
 import org.softuni.cardealer.domain.models.service.CustomerServiceModel;
+import org.softuni.cardealer.mapping.DtoMapper;
 import org.softuni.cardealer.service.CustomerService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping("/customers")
 public class CustomersController extends BaseController {
     private final CustomerService customerService;
 
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
+
+    private final AsyncTaskExecutor catalogueReads;
+
+    private final long catalogueReadTimeoutMillis;
 
     @Autowired
-    public CustomersController(CustomerService customerService, ModelMapper modelMapper) {
+    public CustomersController(CustomerService customerService, DtoMapper dtoMapper,
+                               @Qualifier(AsyncBulkheadConfiguration.CATALOGUE_READS) AsyncTaskExecutor catalogueReads,
+                               @Value("${cardealer.bulkheads.catalogue-reads.timeout-ms:10000}") long catalogueReadTimeoutMillis) {
         this.customerService = customerService;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.catalogueReads = catalogueReads;
+        this.catalogueReadTimeoutMillis = catalogueReadTimeoutMillis;
     }
 
 
@@ -33,15 +46,17 @@ public class CustomersController extends BaseController {
             //TODO: DO SOMETHING
         }
 
-        this.customerService.saveCustomer(this.modelMapper.map(bindingModel, CustomerServiceModel.class));
+        this.customerService.saveCustomer(this.dtoMapper.map(bindingModel, CustomerServiceModel.class));
 
         return this.redirect("all");
     }
 
     @GetMapping("/all")
-    public ModelAndView allCustomers(ModelAndView modelAndView) {
-        modelAndView.addObject("customers", this.customerService.findAll());
+    public CompletableFuture<ModelAndView> allCustomers(ModelAndView modelAndView) {
+        return this.async(this.catalogueReads, this.catalogueReadTimeoutMillis, () -> {
+            modelAndView.addObject("customers", this.customerService.findAllViews());
 
-        return this.view("all-customers", modelAndView);
+            return this.view("all-customers", modelAndView);
+        });
     }
 }
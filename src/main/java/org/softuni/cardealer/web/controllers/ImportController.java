@@ -0,0 +1,67 @@
+package org.softuni.cardealer.web.controllers;
+
+import org.softuni.cardealer.config.AsyncBulkheadConfiguration;
+import org.softuni.cardealer.domain.models.service.ImportReportServiceModel;
+import org.softuni.cardealer.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+
+@Controller
+@RequestMapping("/import")
+public class ImportController extends BaseController {
+    private static final String TEXT_CSV = "text/csv";
+
+    private final ImportService importService;
+
+    private final AsyncTaskExecutor bulkWrites;
+
+    @Autowired
+    public ImportController(ImportService importService,
+                           @Qualifier(AsyncBulkheadConfiguration.BULK_WRITES) AsyncTaskExecutor bulkWrites) {
+        this.importService = importService;
+        this.bulkWrites = bulkWrites;
+    }
+
+    @PostMapping(value = "/suppliers", consumes = TEXT_CSV)
+    @ResponseBody
+    public CompletableFuture<ImportReportServiceModel> importSuppliers(Reader body) {
+        return this.importAsync(body, this.importService::importSuppliers);
+    }
+
+    @PostMapping(value = "/parts", consumes = TEXT_CSV)
+    @ResponseBody
+    public CompletableFuture<ImportReportServiceModel> importParts(Reader body) {
+        return this.importAsync(body, this.importService::importParts);
+    }
+
+    @PostMapping(value = "/cars", consumes = TEXT_CSV)
+    @ResponseBody
+    public CompletableFuture<ImportReportServiceModel> importCars(Reader body) {
+        return this.importAsync(body, this.importService::importCars);
+    }
+
+    private CompletableFuture<ImportReportServiceModel> importAsync(Reader body, Importer importer) {
+        return this.async(this.bulkWrites, () -> {
+            try {
+                return importer.importFrom(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Importer {
+        ImportReportServiceModel importFrom(Reader body) throws IOException;
+    }
+}
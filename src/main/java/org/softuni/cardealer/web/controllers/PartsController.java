@@ -1,32 +1,71 @@
 package org.softuni.cardealer.web.controllers;
 
-import org.modelmapper.ModelMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.softuni.cardealer.config.AsyncBulkheadConfiguration;
 import org.softuni.cardealer.domain.models.binding.AddPartBindingModel;
 import org.softuni.cardealer.domain.models.binding.AddSupplierBindingModel;
+import org.softuni.cardealer.domain.models.binding.RepricePartsBindingModel;
+import org.softuni.cardealer.domain.models.service.PartRepricingServiceModel;
 import org.softuni.cardealer.domain.models.service.PartServiceModel;
-import org.softuni.cardealer.domain.models.service.SupplierServiceModel;
+import org.softuni.cardealer.domain.models.view.PartSearchViewModel;
+import org.softuni.cardealer.mapping.DtoMapper;
+import org.softuni.cardealer.service.CatalogueVersions;
 import org.softuni.cardealer.service.PartService;
 import org.softuni.cardealer.service.SupplierService;
+import org.softuni.cardealer.web.cache.VersionedResponseCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.ModelAndView;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping("/parts")
 public class PartsController extends BaseController {
     private final PartService partService;
 
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
+
+    private final CatalogueVersions catalogueVersions;
+
+    private final VersionedResponseCache fetchCache;
+
+    private final AsyncTaskExecutor catalogueReads;
+
+    private final long catalogueReadTimeoutMillis;
+
+    private final AsyncTaskExecutor bulkWrites;
 
     @Autowired
-    public PartsController(PartService partService, ModelMapper modelMapper) {
+    public PartsController(PartService partService, DtoMapper dtoMapper, CatalogueVersions catalogueVersions, ObjectMapper objectMapper,
+                           @Value("${cardealer.fetch.max-cached-bytes:1048576}") int maxCachedBytes,
+                           @Qualifier(AsyncBulkheadConfiguration.CATALOGUE_READS) AsyncTaskExecutor catalogueReads,
+                           @Value("${cardealer.bulkheads.catalogue-reads.timeout-ms:10000}") long catalogueReadTimeoutMillis,
+                           @Qualifier(AsyncBulkheadConfiguration.BULK_WRITES) AsyncTaskExecutor bulkWrites) {
         this.partService = partService;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.catalogueVersions = catalogueVersions;
+        this.fetchCache = new VersionedResponseCache(objectMapper, maxCachedBytes);
+        this.catalogueReads = catalogueReads;
+        this.catalogueReadTimeoutMillis = catalogueReadTimeoutMillis;
+        this.bulkWrites = bulkWrites;
     }
 
     @PostMapping("/add")
@@ -35,12 +74,7 @@ public class PartsController extends BaseController {
             //TODO: DO SOMETHING
         }
 
-        PartServiceModel modelToSave = this.modelMapper.map(bindingModel, PartServiceModel.class);
-        modelToSave.setSupplier(new SupplierServiceModel(){{
-            setName(bindingModel.getSupplier());
-        }});
-
-        this.partService.savePart(modelToSave);
+        this.partService.savePart(this.dtoMapper.map(bindingModel, PartServiceModel.class));
 
         return this.redirect("all");
     }
@@ -51,7 +85,7 @@ public class PartsController extends BaseController {
             //TODO: DO SOMETHING
         }
 
-        this.partService.editPart(id, this.modelMapper.map(bindingModel, PartServiceModel.class));
+        this.partService.editPart(id, this.dtoMapper.map(bindingModel, PartServiceModel.class));
 
         return this.redirect("/parts/all");
     }
@@ -63,16 +97,70 @@ public class PartsController extends BaseController {
         return this.redirect("/parts/all");
     }
 
+    @PostMapping(value = "/reprice", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<Map<String, Integer>>> repriceParts(@RequestBody RepricePartsBindingModel bindingModel) {
+        PartRepricingServiceModel repricing = this.dtoMapper.map(bindingModel, PartRepricingServiceModel.class);
+
+        return this.async(this.bulkWrites, () -> {
+            try {
+                int affected = this.partService.repriceParts(repricing);
+
+                return ResponseEntity.ok(Collections.singletonMap("affected", affected));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    @GetMapping("/{id}/details")
+    public CompletableFuture<ModelAndView> partDetails(@PathVariable String id, ModelAndView modelAndView) {
+        return this.async(this.catalogueReads, this.catalogueReadTimeoutMillis, () -> {
+            modelAndView.addObject("part", this.partService.findPartById(id));
+
+            return this.view("fragments/modals/part/part-modals", modelAndView);
+        });
+    }
+
+    @GetMapping("/search")
+    @ResponseBody
+    public List<PartSearchViewModel> searchParts(@RequestParam("q") String query,
+                                                 @RequestParam(defaultValue = "10") int limit) {
+        // answered from memory, handing it to a bulkhead would cost more than the lookup
+        return this.partService.searchParts(query, limit);
+    }
+
     @GetMapping("/all")
-    public ModelAndView allParts(ModelAndView modelAndView) {
-        modelAndView.addObject("parts", this.partService.findAll());
+    public CompletableFuture<ModelAndView> allParts(ModelAndView modelAndView) {
+        return this.async(this.catalogueReads, this.catalogueReadTimeoutMillis, () -> {
+            modelAndView.addObject("parts", this.partService.findAllViews());
 
-        return this.view("all-parts", modelAndView);
+            return this.view("all-parts", modelAndView);
+        });
     }
 
     @GetMapping("/fetch")
     @ResponseBody
-    public List<PartServiceModel> fetchParts() {
-        return this.partService.findAll();
+    public CompletableFuture<Void> fetchParts(WebRequest request, HttpServletResponse response) {
+        long version = this.catalogueVersions.partsVersion();
+        if (request.checkNotModified(this.catalogueVersions.eTag("parts", version))) {
+            // answered with 304 without going async
+            return null;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+
+        // no timeout here: the task writes the response itself and would keep
+        // writing after a timeout had already answered the request
+        return this.async(this.catalogueReads, () -> {
+            try {
+                this.fetchCache.writeArray(version, response.getOutputStream(), this.partService::forEachPart);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return null;
+        });
     }
 }
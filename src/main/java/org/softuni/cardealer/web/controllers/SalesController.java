@@ -0,0 +1,187 @@
+package org.softuni.cardealer.web.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.softuni.cardealer.config.AsyncBulkheadConfiguration;
+import org.softuni.cardealer.domain.entities.SalesRollupDimension;
+import org.softuni.cardealer.domain.models.service.SalesRollupServiceModel;
+import org.softuni.cardealer.domain.models.view.SaleExportViewModel;
+import org.softuni.cardealer.service.CsvWriter;
+import org.softuni.cardealer.service.SaleService;
+import org.softuni.cardealer.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sales dumps and rollups for accounting. Export bodies are written on the
+ * reports executor straight from a database cursor, so exports of any size
+ * run in constant memory without holding a servlet thread. Exports get their
+ * own async timeout; every other async request keeps the short default.
+ */
+@Controller
+@RequestMapping("/sales")
+public class SalesController extends BaseController {
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final MediaType APPLICATION_NDJSON = new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+
+    private final SaleService saleService;
+
+    private final SalesRollupService salesRollupService;
+
+    private final ObjectMapper objectMapper;
+
+    private final AsyncTaskExecutor reports;
+
+    private final AsyncTaskExecutor bulkWrites;
+
+    private final long exportTimeoutMillis;
+
+    @Autowired
+    public SalesController(SaleService saleService, SalesRollupService salesRollupService, ObjectMapper objectMapper,
+                           @Qualifier(AsyncBulkheadConfiguration.REPORTS) AsyncTaskExecutor reports,
+                           @Qualifier(AsyncBulkheadConfiguration.BULK_WRITES) AsyncTaskExecutor bulkWrites,
+                           @Value("${cardealer.sales.export.timeout-ms:1800000}") long exportTimeoutMillis) {
+        this.saleService = saleService;
+        this.salesRollupService = salesRollupService;
+        this.objectMapper = objectMapper;
+        this.reports = reports;
+        this.bulkWrites = bulkWrites;
+        this.exportTimeoutMillis = exportTimeoutMillis;
+    }
+
+    @GetMapping("/rollups/{dimension}")
+    public CompletableFuture<ResponseEntity<List<SalesRollupServiceModel>>> salesRollups(@PathVariable String dimension) {
+        return this.async(this.reports, () -> parseDimension(dimension)
+                .map(x -> ResponseEntity.ok(this.salesRollupService.findAll(x)))
+                .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/rollups/{dimension}/{key}")
+    public CompletableFuture<ResponseEntity<SalesRollupServiceModel>> salesRollup(@PathVariable String dimension, @PathVariable String key) {
+        return this.async(this.reports, () -> parseDimension(dimension)
+                .map(x -> ResponseEntity.ok(this.salesRollupService.findRollup(x, key)))
+                .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public CompletableFuture<ModelAndView> rebuildSalesRollups() {
+        return this.async(this.bulkWrites, () -> {
+            this.salesRollupService.rebuild();
+
+            return this.redirect("/sales/rollups/day");
+        });
+    }
+
+    @GetMapping("/export")
+    @ResponseBody
+    public WebAsyncTask<Void> exportSales(@RequestParam(defaultValue = "csv") String format,
+                                          HttpServletResponse response) throws IOException {
+        switch (format) {
+            case "csv":
+                return this.attachment(response, "sales.csv", TEXT_CSV, this::writeCsv);
+            case "ndjson":
+                return this.attachment(response, "sales.ndjson", APPLICATION_NDJSON, this::writeNdjson);
+            default:
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+                return null;
+        }
+    }
+
+    private static Optional<SalesRollupDimension> parseDimension(String dimension) {
+        return Arrays.stream(SalesRollupDimension.values())
+                .filter(x -> x.name().equalsIgnoreCase(dimension))
+                .findFirst();
+    }
+
+    private WebAsyncTask<Void> attachment(HttpServletResponse response, String fileName, MediaType mediaType,
+                                          StreamingResponseBody body) {
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        response.setContentType(mediaType.toString());
+
+        return new WebAsyncTask<>(this.exportTimeoutMillis, this.reports, () -> {
+            body.writeTo(response.getOutputStream());
+
+            return null;
+        });
+    }
+
+    private void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CsvWriter csvWriter = new CsvWriter(writer);
+
+        csvWriter.writeRow("type", "id", "customer", "item", "quantity", "price", "discount");
+        try {
+            this.saleService.forEachSale(sale -> {
+                try {
+                    csvWriter.writeRow(sale.getType(), sale.getId(), sale.getCustomerName(), sale.getItem(),
+                            sale.getQuantity(), sale.getPrice(), sale.getDiscount());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            try {
+                this.saleService.forEachSale(sale -> {
+                    try {
+                        writeSale(generator, sale);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static void writeSale(JsonGenerator generator, SaleExportViewModel sale) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", sale.getType());
+        generator.writeStringField("id", sale.getId());
+        generator.writeStringField("customer", sale.getCustomerName());
+        generator.writeStringField("item", sale.getItem());
+        generator.writeObjectField("quantity", sale.getQuantity());
+        generator.writeObjectField("price", sale.getPrice());
+        generator.writeObjectField("discount", sale.getDiscount());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
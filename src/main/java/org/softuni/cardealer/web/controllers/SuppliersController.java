@@ -1,29 +1,60 @@
 package org.softuni.cardealer.web.controllers;
 
-import org.modelmapper.ModelMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.softuni.cardealer.config.AsyncBulkheadConfiguration;
 import org.softuni.cardealer.domain.models.binding.AddSupplierBindingModel;
 import org.softuni.cardealer.domain.models.service.SupplierServiceModel;
+import org.softuni.cardealer.domain.models.view.SupplierSuggestionViewModel;
+import org.softuni.cardealer.mapping.DtoMapper;
+import org.softuni.cardealer.service.CatalogueVersions;
 import org.softuni.cardealer.service.SupplierService;
+import org.softuni.cardealer.web.cache.VersionedResponseCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.ModelAndView;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping("/suppliers")
 public class SuppliersController extends BaseController {
     private final SupplierService supplierService;
 
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
+
+    private final CatalogueVersions catalogueVersions;
+
+    private final VersionedResponseCache fetchCache;
+
+    private final AsyncTaskExecutor catalogueReads;
+
+    private final long catalogueReadTimeoutMillis;
 
     @Autowired
-    public SuppliersController(SupplierService supplierService, ModelMapper modelMapper) {
+    public SuppliersController(SupplierService supplierService, DtoMapper dtoMapper, CatalogueVersions catalogueVersions, ObjectMapper objectMapper,
+                               @Value("${cardealer.fetch.max-cached-bytes:1048576}") int maxCachedBytes,
+                               @Qualifier(AsyncBulkheadConfiguration.CATALOGUE_READS) AsyncTaskExecutor catalogueReads,
+                               @Value("${cardealer.bulkheads.catalogue-reads.timeout-ms:10000}") long catalogueReadTimeoutMillis) {
         this.supplierService = supplierService;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
+        this.catalogueVersions = catalogueVersions;
+        this.fetchCache = new VersionedResponseCache(objectMapper, maxCachedBytes);
+        this.catalogueReads = catalogueReads;
+        this.catalogueReadTimeoutMillis = catalogueReadTimeoutMillis;
     }
 
     @PostMapping("/add")
@@ -32,7 +63,7 @@ public class SuppliersController extends BaseController {
             //TODO: DO SOMETHING
         }
 
-        this.supplierService.saveSupplier(this.modelMapper.map(bindingModel, SupplierServiceModel.class));
+        this.supplierService.saveSupplier(this.dtoMapper.map(bindingModel, SupplierServiceModel.class));
 
         return this.redirect("all");
     }
@@ -43,7 +74,7 @@ public class SuppliersController extends BaseController {
             //TODO: DO SOMETHING
         }
 
-        this.supplierService.editSupplier(id, this.modelMapper.map(bindingModel, SupplierServiceModel.class));
+        this.supplierService.editSupplier(id, this.dtoMapper.map(bindingModel, SupplierServiceModel.class));
 
         return this.redirect("/suppliers/all");
     }
@@ -56,15 +87,43 @@ public class SuppliersController extends BaseController {
     }
 
     @GetMapping("/all")
-    public ModelAndView allSuppliers(ModelAndView modelAndView) {
-        modelAndView.addObject("suppliers", this.supplierService.findAll());
+    public CompletableFuture<ModelAndView> allSuppliers(ModelAndView modelAndView) {
+        return this.async(this.catalogueReads, this.catalogueReadTimeoutMillis, () -> {
+            modelAndView.addObject("suppliers", this.supplierService.findAllViews());
 
-        return this.view("all-suppliers", modelAndView);
+            return this.view("all-suppliers", modelAndView);
+        });
+    }
+
+    @GetMapping("/suggest")
+    @ResponseBody
+    public List<SupplierSuggestionViewModel> suggestSuppliers(@RequestParam("q") String prefix,
+                                                              @RequestParam(defaultValue = "10") int limit) {
+        return this.supplierService.suggestSuppliers(prefix, limit);
     }
 
     @GetMapping("/fetch")
     @ResponseBody
-    public List<SupplierServiceModel> fetchSuppliers() {
-        return this.supplierService.findAll();
+    public CompletableFuture<Void> fetchSuppliers(WebRequest request, HttpServletResponse response) {
+        long version = this.catalogueVersions.suppliersVersion();
+        if (request.checkNotModified(this.catalogueVersions.eTag("suppliers", version))) {
+            // answered with 304 without going async
+            return null;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+
+        // no timeout here: the task writes the response itself and would keep
+        // writing after a timeout had already answered the request
+        return this.async(this.catalogueReads, () -> {
+            try {
+                this.fetchCache.writeArray(version, response.getOutputStream(), this.supplierService::forEachSupplier);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return null;
+        });
     }
 }
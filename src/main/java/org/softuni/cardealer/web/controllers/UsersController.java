@@ -1,10 +1,12 @@
 package org.softuni.cardealer.web.controllers;
 
-import org.modelmapper.ModelMapper;
 import org.softuni.cardealer.domain.models.binding.RegisterUserBindingModel;
 import org.softuni.cardealer.domain.models.service.UserServiceModel;
+import org.softuni.cardealer.mapping.DtoMapper;
+import org.softuni.cardealer.service.OffloadedPasswordEncoder;
 import org.softuni.cardealer.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,12 +22,12 @@ import javax.validation.Valid;
 public class UsersController extends BaseController {
     private final UserService userService;
 
-    private final ModelMapper modelMapper;
+    private final DtoMapper dtoMapper;
 
     @Autowired
-    public UsersController(UserService userService, ModelMapper modelMapper) {
+    public UsersController(UserService userService, DtoMapper dtoMapper) {
         this.userService = userService;
-        this.modelMapper = modelMapper;
+        this.dtoMapper = dtoMapper;
     }
 
     @GetMapping("/login")
@@ -44,7 +46,14 @@ public class UsersController extends BaseController {
             //TODO: DO SOMETHING
         }
 
-        this.userService.saveUser(this.modelMapper.map(bindingModel, UserServiceModel.class));
+        try {
+            this.userService.saveUser(this.dtoMapper.map(bindingModel, UserServiceModel.class));
+        } catch (OffloadedPasswordEncoder.Rejected e) {
+            ModelAndView modelAndView = this.view("register");
+            modelAndView.setStatus(HttpStatus.SERVICE_UNAVAILABLE);
+
+            return modelAndView;
+        }
 
         return this.redirect("login");
     }
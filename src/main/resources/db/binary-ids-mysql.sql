@@ -0,0 +1,133 @@
+-- Converts the varchar(255) ids of an existing car_dealer_db to BINARY(16).
+-- Run it once with the application stopped and a fresh backup taken, then
+-- start the application with cardealer.id.binary=true.
+--
+-- Existing random ids keep their values; only new rows get time-ordered ids.
+--
+-- It also brings a schema from before the id change up to date: cars.car_price
+-- (backfilled as in car-price-mysql.sql), users.enabled and sales_rollups.
+-- Rollup keys hold ids in their canonical string form and are not converted;
+-- fill a newly created sales_rollups by starting once with --rebuild-sales-rollups.
+
+DROP PROCEDURE IF EXISTS cardealer_execute;
+DROP PROCEDURE IF EXISTS cardealer_drop_foreign_keys;
+DROP PROCEDURE IF EXISTS cardealer_to_binary;
+DROP PROCEDURE IF EXISTS cardealer_add_column;
+
+DELIMITER //
+
+CREATE PROCEDURE cardealer_execute(IN statement_text TEXT)
+BEGIN
+    SET @cardealer_statement = statement_text;
+    PREPARE statement FROM @cardealer_statement;
+    EXECUTE statement;
+    DEALLOCATE PREPARE statement;
+END //
+
+CREATE PROCEDURE cardealer_drop_foreign_keys()
+BEGIN
+    DECLARE done BOOLEAN DEFAULT FALSE;
+    DECLARE table_name_value, constraint_name_value VARCHAR(64);
+    DECLARE foreign_keys CURSOR FOR
+        SELECT TABLE_NAME, CONSTRAINT_NAME
+        FROM information_schema.REFERENTIAL_CONSTRAINTS
+        WHERE CONSTRAINT_SCHEMA = DATABASE()
+          AND TABLE_NAME IN ('parts', 'cars_parts', 'car_sales', 'part_sales');
+    DECLARE CONTINUE HANDLER FOR NOT FOUND SET done = TRUE;
+
+    OPEN foreign_keys;
+    drop_loop: LOOP
+        FETCH foreign_keys INTO table_name_value, constraint_name_value;
+        IF done THEN
+            LEAVE drop_loop;
+        END IF;
+        CALL cardealer_execute(CONCAT(
+                'ALTER TABLE `', table_name_value, '` DROP FOREIGN KEY `', constraint_name_value, '`'));
+    END LOOP;
+    CLOSE foreign_keys;
+END //
+
+CREATE PROCEDURE cardealer_to_binary(IN table_name_value VARCHAR(64), IN column_name_value VARCHAR(64),
+                                     IN nullability VARCHAR(16))
+BEGIN
+    CALL cardealer_execute(CONCAT(
+            'ALTER TABLE `', table_name_value, '` ADD COLUMN `', column_name_value, '_bin` BINARY(16) NULL'));
+    CALL cardealer_execute(CONCAT(
+            'UPDATE `', table_name_value, '` SET `', column_name_value, '_bin` = ',
+            'UNHEX(REPLACE(`', column_name_value, '`, ''-'', ''''))'));
+    CALL cardealer_execute(CONCAT(
+            'ALTER TABLE `', table_name_value, '` DROP COLUMN `', column_name_value, '`, ',
+            'CHANGE COLUMN `', column_name_value, '_bin` `', column_name_value, '` BINARY(16) ', nullability));
+END //
+
+CREATE PROCEDURE cardealer_add_column(IN table_name_value VARCHAR(64), IN column_name_value VARCHAR(64),
+                                      IN column_definition VARCHAR(255))
+BEGIN
+    IF NOT EXISTS(SELECT 1
+                  FROM information_schema.COLUMNS
+                  WHERE TABLE_SCHEMA = DATABASE()
+                    AND TABLE_NAME = table_name_value
+                    AND COLUMN_NAME = column_name_value) THEN
+        CALL cardealer_execute(CONCAT(
+                'ALTER TABLE `', table_name_value, '` ADD COLUMN `', column_name_value, '` ', column_definition));
+    END IF;
+END //
+
+DELIMITER ;
+
+CALL cardealer_add_column('cars', 'car_price', 'DECIMAL(19, 2) NOT NULL DEFAULT 0');
+UPDATE cars
+SET car_price = (SELECT COALESCE(SUM(p.price), 0)
+                 FROM cars_parts cp
+                          JOIN parts p ON p.id = cp.part_id
+                 WHERE cp.car_id = cars.id);
+
+CALL cardealer_add_column('users', 'enabled', 'BOOLEAN NOT NULL DEFAULT TRUE');
+
+CREATE TABLE IF NOT EXISTS sales_rollups
+(
+    dimension     VARCHAR(16)    NOT NULL,
+    dimension_key VARCHAR(64)    NOT NULL,
+    sales_count   BIGINT         NOT NULL,
+    quantity      BIGINT         NOT NULL,
+    revenue       DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (dimension, dimension_key)
+);
+
+CALL cardealer_drop_foreign_keys();
+
+CALL cardealer_to_binary('suppliers', 'id', 'NOT NULL');
+CALL cardealer_to_binary('parts', 'id', 'NOT NULL');
+CALL cardealer_to_binary('parts', 'supplier_id', 'NOT NULL');
+CALL cardealer_to_binary('cars', 'id', 'NOT NULL');
+CALL cardealer_to_binary('cars_parts', 'car_id', 'NOT NULL');
+CALL cardealer_to_binary('cars_parts', 'part_id', 'NOT NULL');
+CALL cardealer_to_binary('customers', 'id', 'NOT NULL');
+CALL cardealer_to_binary('car_sales', 'id', 'NOT NULL');
+CALL cardealer_to_binary('car_sales', 'car_id', 'NULL');
+CALL cardealer_to_binary('car_sales', 'customer_id', 'NULL');
+CALL cardealer_to_binary('part_sales', 'id', 'NOT NULL');
+CALL cardealer_to_binary('part_sales', 'part_id', 'NULL');
+CALL cardealer_to_binary('part_sales', 'customer_id', 'NULL');
+CALL cardealer_to_binary('users', 'id', 'NOT NULL');
+
+ALTER TABLE suppliers ADD PRIMARY KEY (id);
+ALTER TABLE parts ADD PRIMARY KEY (id),
+    ADD CONSTRAINT fk_parts_supplier FOREIGN KEY (supplier_id) REFERENCES suppliers (id);
+ALTER TABLE cars ADD PRIMARY KEY (id);
+ALTER TABLE cars_parts
+    ADD CONSTRAINT fk_cars_parts_car FOREIGN KEY (car_id) REFERENCES cars (id),
+    ADD CONSTRAINT fk_cars_parts_part FOREIGN KEY (part_id) REFERENCES parts (id);
+ALTER TABLE customers ADD PRIMARY KEY (id);
+ALTER TABLE car_sales ADD PRIMARY KEY (id),
+    ADD CONSTRAINT fk_car_sales_car FOREIGN KEY (car_id) REFERENCES cars (id),
+    ADD CONSTRAINT fk_car_sales_customer FOREIGN KEY (customer_id) REFERENCES customers (id);
+ALTER TABLE part_sales ADD PRIMARY KEY (id),
+    ADD CONSTRAINT fk_part_sales_part FOREIGN KEY (part_id) REFERENCES parts (id),
+    ADD CONSTRAINT fk_part_sales_customer FOREIGN KEY (customer_id) REFERENCES customers (id);
+ALTER TABLE users ADD PRIMARY KEY (id);
+
+DROP PROCEDURE cardealer_execute;
+DROP PROCEDURE cardealer_drop_foreign_keys;
+DROP PROCEDURE cardealer_to_binary;
+DROP PROCEDURE cardealer_add_column;
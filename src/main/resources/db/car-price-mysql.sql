@@ -0,0 +1,9 @@
+-- Backfills cars.car_price for databases created before the column existed.
+-- ddl-auto=update adds the column with 0.00 in every existing row; run this
+-- once afterwards. From then on the application keeps the column up to date.
+
+UPDATE cars
+SET car_price = (SELECT COALESCE(SUM(p.price), 0)
+                 FROM cars_parts cp
+                          JOIN parts p ON p.id = cp.part_id
+                 WHERE cp.car_id = cars.id);
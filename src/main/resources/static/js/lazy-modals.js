@@ -0,0 +1,30 @@
+$(document).on('click', '.lazy-modal-button', function () {
+    const modal = $(this).data('modal');
+
+    if ($(modal).length) {
+        $(modal).modal('show');
+        return;
+    }
+
+    $('#lazy-modals-error').remove();
+
+    fetch($(this).data('url'))
+        .then((response) => {
+            // a session that timed out is redirected to the login page, which is not the fragment either
+            if (!response.ok || response.redirected) {
+                throw new Error(`Could not load ${response.url}: ${response.status}`);
+            }
+
+            return response.text();
+        })
+        .then((html) => {
+            $('#lazy-modals').append(html);
+            $(modal).parent().find('.selectpicker').selectpicker();
+            $(modal).modal('show');
+        })
+        .catch((err) => {
+            console.log(err);
+            $('#lazy-modals').append('<div id="lazy-modals-error" class="alert alert-danger text-center" role="alert">'
+                + 'The details could not be loaded. Please try again.</div>');
+        });
+});
@@ -0,0 +1,118 @@
+package org.softuni.cardealer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.domain.models.service.CarServiceModel;
+import org.softuni.cardealer.repository.CarRepository;
+import org.softuni.cardealer.repository.PartRepository;
+import org.softuni.cardealer.repository.SupplierRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.softuni.cardealer.AsyncRequests.performAsync;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "cardealer.id.binary=true")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class BinaryIdTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @After
+    public void deleteAll() {
+        this.carRepository.deleteAll();
+        this.partRepository.deleteAll();
+        this.supplierRepository.deleteAll();
+    }
+
+    @Test
+    public void schema_ShouldStoreIdsAndForeignKeysAsBinary() {
+        Assert.assertTrue(this.columnType("CARS", "ID").contains("BINARY"));
+        Assert.assertTrue(this.columnType("PARTS", "SUPPLIER_ID").contains("BINARY"));
+        Assert.assertTrue(this.columnType("CARS_PARTS", "PART_ID").contains("BINARY"));
+    }
+
+    @Test
+    @WithMockUser
+    public void carDetails_ShouldLoadCarAndPartsByBinaryIds() throws Exception {
+        Car car = this.saveCar();
+        Assert.assertEquals(car.getId(), UUID.fromString(car.getId()).toString());
+
+        CarServiceModel details = (CarServiceModel) performAsync(mockMvc, get("/cars/" + car.getId() + "/details"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getModelAndView()
+                .getModel()
+                .get("car");
+
+        Assert.assertEquals(car.getId(), details.getId());
+        Assert.assertEquals(1, details.getParts().size());
+        Assert.assertEquals(car.getParts().get(0).getId(), details.getParts().get(0).getId());
+    }
+
+    @Test
+    @WithMockUser
+    public void carDetails_WithMalformedId_ShouldReturnNotFound() throws Exception {
+        performAsync(mockMvc, get("/cars/not-a-uuid/details"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Car saveCar() {
+        Supplier supplier = new Supplier();
+        supplier.setName("binarySupplier");
+        supplier.setIsImporter(true);
+        this.supplierRepository.save(supplier);
+
+        Part part = new Part();
+        part.setName("binaryPart");
+        part.setPrice(BigDecimal.TEN);
+        part.setSupplier(supplier);
+        this.partRepository.save(part);
+
+        Car car = new Car();
+        car.setMake("binaryMake");
+        car.setModel("binaryModel");
+        car.setTravelledDistance(1L);
+        car.setParts(List.of(part));
+
+        return this.carRepository.save(car);
+    }
+
+    private String columnType(String table, String column) {
+        return this.jdbcTemplate.queryForObject(
+                "SELECT TYPE_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = ? AND COLUMN_NAME = ?",
+                String.class, table, column).toUpperCase();
+    }
+}
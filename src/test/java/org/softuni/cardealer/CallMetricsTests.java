@@ -0,0 +1,107 @@
+package org.softuni.cardealer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.domain.models.service.SupplierServiceModel;
+import org.softuni.cardealer.mapping.DtoMapper;
+import org.softuni.cardealer.repository.SupplierRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class CallMetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private DtoMapper dtoMapper;
+
+    @After
+    public void deleteSuppliers() {
+        this.supplierRepository.deleteAll();
+    }
+
+    @Test
+    public void repositoryCalls_ShouldRecordLoadedEntities() {
+        this.saveSupplier("first");
+        this.saveSupplier("second");
+
+        this.supplierRepository.findAll();
+        DistributionSummary entities = this.meterRegistry.get("cardealer.calls.entities")
+                .tags("layer", "repository", "type", "SupplierRepository", "method", "findAll")
+                .summary();
+        double before = entities.totalAmount();
+
+        this.supplierRepository.findAll();
+
+        Assert.assertEquals(2, entities.totalAmount() - before, 0);
+    }
+
+    @Test
+    @WithMockUser
+    public void prometheusEndpoint_ShouldExposeCallHistograms() throws Exception {
+        this.saveSupplier("first");
+        this.dtoMapper.map(this.supplierRepository.findAll().get(0), SupplierServiceModel.class);
+        MvcResult result = mockMvc.perform(get("/suppliers/all")).andReturn();
+        mockMvc.perform(asyncDispatch(result));
+
+        String scrape = mockMvc
+                .perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Assert.assertTrue(scrape.matches("(?s).*cardealer_calls_seconds_bucket\\{[^}]*layer=\"service\",[^}]*type=\"SupplierService\".*"));
+        Assert.assertTrue(scrape.matches("(?s).*cardealer_calls_seconds_bucket\\{[^}]*layer=\"mapping\".*"));
+        Assert.assertTrue(scrape.matches("(?s).*cardealer_calls_seconds_bucket\\{[^}]*le=\"0\\.001048576\".*"));
+        Assert.assertTrue(scrape.matches("(?s).*cardealer_calls_seconds_bucket\\{[^}]*le=\"0\\.002097151\".*"));
+        Assert.assertTrue(scrape.matches("(?s).*cardealer_calls_seconds_bucket\\{[^}]*le=\"10\\.0\".*"));
+        Assert.assertFalse(scrape.matches("(?s).*cardealer_calls_seconds_bucket\\{[^}]*le=\"[^\"]*E-.*"));
+        Assert.assertFalse(scrape.matches("(?s).*cardealer_calls_seconds_bucket\\{[^}]*le=\"(?!10\\.0\")[1-9][0-9]+\\..*"));
+        Assert.assertTrue(scrape.contains("cardealer_calls_entities_count{"));
+        Assert.assertTrue(scrape.matches("(?s).*cardealer_calls_entities_bucket\\{[^}]*le=\"1000\\.0\".*"));
+        Assert.assertFalse(scrape.matches("(?s).*cardealer_calls_entities_bucket\\{[^}]*le=\"2\\.0\".*"));
+    }
+
+    @Test
+    public void prometheusEndpoint_FromRemoteAddress_ShouldBeDenied() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(request -> {
+            request.setRemoteAddr("10.0.0.1");
+            return request;
+        })).andExpect(status().is3xxRedirection());
+    }
+
+    private void saveSupplier(String name) {
+        Supplier supplier = new Supplier();
+        supplier.setName(name);
+        supplier.setIsImporter(true);
+        this.supplierRepository.save(supplier);
+    }
+}
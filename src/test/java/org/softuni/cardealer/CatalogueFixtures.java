@@ -0,0 +1,88 @@
+package org.softuni.cardealer;
+
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.repository.CarRepository;
+import org.softuni.cardealer.repository.PartRepository;
+import org.softuni.cardealer.repository.SupplierRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds suppliers, their parts and cars built from those parts, so queries
+ * pinned by the statement matchers run against joined, non-empty tables.
+ */
+public final class CatalogueFixtures {
+    private final SupplierRepository supplierRepository;
+
+    private final PartRepository partRepository;
+
+    private final CarRepository carRepository;
+
+    private final List<Supplier> suppliers = new ArrayList<>();
+
+    private final List<Part> parts = new ArrayList<>();
+
+    private final List<Car> cars = new ArrayList<>();
+
+    private CatalogueFixtures(SupplierRepository supplierRepository, PartRepository partRepository,
+                              CarRepository carRepository) {
+        this.supplierRepository = supplierRepository;
+        this.partRepository = partRepository;
+        this.carRepository = carRepository;
+    }
+
+    /**
+     * Saves the given number of suppliers with two parts each, and cars that
+     * each have two parts from different suppliers.
+     */
+    public static CatalogueFixtures seed(SupplierRepository supplierRepository, PartRepository partRepository,
+                                         CarRepository carRepository, int suppliers, int cars) {
+        CatalogueFixtures fixtures = new CatalogueFixtures(supplierRepository, partRepository, carRepository);
+
+        for (int i = 0; i < suppliers; i++) {
+            Supplier supplier = new Supplier();
+            supplier.setName("fixtureSupplier" + i);
+            supplier.setIsImporter(i % 2 == 0);
+            fixtures.suppliers.add(supplierRepository.save(supplier));
+
+            for (int j = 0; j < 2; j++) {
+                Part part = new Part();
+                part.setName("fixturePart" + i + "-" + j);
+                part.setPrice(BigDecimal.valueOf(10 + j));
+                part.setSupplier(supplier);
+                fixtures.parts.add(partRepository.save(part));
+            }
+        }
+
+        for (int i = 0; i < cars; i++) {
+            Car car = new Car();
+            car.setMake("fixtureMake" + i);
+            car.setModel("fixtureModel");
+            car.setTravelledDistance((long) i);
+            car.setParts(new ArrayList<>(List.of(
+                    fixtures.parts.get(i % fixtures.parts.size()),
+                    fixtures.parts.get((i + 2) % fixtures.parts.size()))));
+            fixtures.cars.add(carRepository.saveAndFlush(car));
+        }
+
+        return fixtures;
+    }
+
+    public List<Car> getCars() {
+        return this.cars;
+    }
+
+    public List<Supplier> getSuppliers() {
+        return this.suppliers;
+    }
+
+    public void delete() {
+        this.carRepository.deleteAll(this.cars);
+        this.partRepository.deleteAll(this.parts);
+        this.supplierRepository.deleteAll(this.suppliers);
+    }
+}
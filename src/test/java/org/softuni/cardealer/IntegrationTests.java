@@ -1,10 +1,13 @@
 package org.softuni.cardealer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.softuni.cardealer.domain.models.binding.AddSupplierBindingModel;
+import org.softuni.cardealer.repository.CarRepository;
+import org.softuni.cardealer.repository.PartRepository;
 import org.softuni.cardealer.repository.SupplierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
@@ -15,6 +18,9 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.softuni.cardealer.AsyncRequests.performAsync;
+import static org.softuni.cardealer.SqlStatementMatchers.noRepeatedStatements;
+import static org.softuni.cardealer.SqlStatementMatchers.statementsAtMost;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
@@ -31,6 +37,21 @@ public class IntegrationTests {
     @Autowired
     private SupplierRepository supplierRepository;
 
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    private CatalogueFixtures fixtures;
+
+    @After
+    public void deleteFixtures() {
+        if (this.fixtures != null) {
+            this.fixtures.delete();
+        }
+    }
+
     public static String asJsonString(final Object obj) {
         try {
             return new ObjectMapper().writeValueAsString(obj);
@@ -49,23 +70,25 @@ public class IntegrationTests {
     @Test
     @WithMockUser("spring")
     public void test2() throws Exception {
-        this.mockMvc
-                .perform(get("/cars/all"))
+        performAsync(this.mockMvc, get("/cars/all"))
                 .andExpect(view().name("all-cars"));
 
-        this.mockMvc
-                .perform(get("/cars/all"))
-                .andExpect(model().attributeExists("cars"));
+        this.fixtures = CatalogueFixtures.seed(this.supplierRepository, this.partRepository, this.carRepository, 3, 5);
+        performAsync(this.mockMvc, get("/cars/all"))
+                .andExpect(model().attributeExists("cars"))
+                .andExpect(statementsAtMost(1))
+                .andExpect(noRepeatedStatements());
     }
 
     @Test
     @WithMockUser("spring")
     public void test3() throws Exception {
+        long before = this.supplierRepository.count();
         this.mockMvc
                 .perform(post("/suppliers/add")
                         .param("name", "Megaparts")
                         .param("isImporter", "on"));
 
-        Assert.assertEquals(1, this.supplierRepository.count());
+        Assert.assertEquals(before + 1, this.supplierRepository.count());
     }
 }
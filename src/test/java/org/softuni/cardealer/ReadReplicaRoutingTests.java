@@ -0,0 +1,211 @@
+package org.softuni.cardealer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.softuni.cardealer.config.ReadReplicaConfiguration;
+import org.softuni.cardealer.datasource.ReadYourWritesFilter;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.domain.models.view.SupplierListViewModel;
+import org.softuni.cardealer.repository.SupplierRepository;
+import org.softuni.cardealer.service.SupplierService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.core.Ordered;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against two separate H2 databases standing in for the primary and
+ * its replica; replication is simulated by copying the primary over.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:cardealer-primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "cardealer.datasource.replica.enabled=true",
+        "cardealer.datasource.replica.jdbc-url=jdbc:h2:mem:cardealer-replica;DB_CLOSE_DELAY=-1",
+        "cardealer.datasource.replica.username=sa",
+        "cardealer.datasource.replica.password=",
+        "cardealer.datasource.replica.read-only=false",
+        "cardealer.datasource.replica.read-your-writes-ms=60000"
+})
+@AutoConfigureMockMvc
+public class ReadReplicaRoutingTests {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SupplierService supplierService;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    @Qualifier(ReadReplicaConfiguration.PRIMARY)
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier(ReadReplicaConfiguration.REPLICA)
+    private DataSource replica;
+
+    @Before
+    public void replicate() throws Exception {
+        copy(this.primary, this.replica, this.temporaryFolder.newFile().toPath());
+    }
+
+    @After
+    public void deleteSuppliers() {
+        this.supplierRepository.deleteAll();
+    }
+
+    @Test
+    public void readOnlyServiceCalls_ShouldReadFromReplica() throws Exception {
+        Supplier supplier = new Supplier();
+        supplier.setName("Not Replicated Yet");
+        supplier.setIsImporter(true);
+        this.supplierRepository.save(supplier);
+
+        Assert.assertFalse(this.supplierNames(this.supplierService.findAllViews()).contains("Not Replicated Yet"));
+
+        this.replicate();
+
+        Assert.assertTrue(this.supplierNames(this.supplierService.findAllViews()).contains("Not Replicated Yet"));
+    }
+
+    @Test
+    @WithMockUser
+    public void readsAfterOwnWrite_ShouldReadFromPrimary() throws Exception {
+        List<String> stored = new ArrayList<>();
+        MockHttpSession writer = new MockHttpSession() {
+            @Override
+            public void setAttribute(String name, Object value) {
+                stored.add(name);
+                super.setAttribute(name, value);
+            }
+        };
+        this.renderedSuppliers(writer);
+        stored.clear();
+
+        mockMvc.perform(post("/suppliers/add")
+                .session(writer)
+                .param("name", "Own Write")
+                .param("isImporter", "true"))
+                .andExpect(status().is3xxRedirection());
+
+        Assert.assertTrue(stored.stream().anyMatch(x -> x.startsWith(ReadYourWritesFilter.class.getName())));
+        Assert.assertTrue(this.renderedSuppliers(writer).contains("Own Write"));
+        Assert.assertFalse(this.renderedSuppliers(new MockHttpSession()).contains("Own Write"));
+    }
+
+    @Test
+    @WithMockUser
+    public void fetchFillingTheCache_ShouldReadFromPrimary() throws Exception {
+        Supplier supplier = new Supplier();
+        supplier.setName("Fetched Before Replication");
+        supplier.setIsImporter(true);
+        this.supplierRepository.save(supplier);
+
+        MvcResult result = mockMvc
+                .perform(get("/suppliers/fetch").session(new MockHttpSession()))
+                .andReturn();
+        String body = mockMvc
+                .perform(asyncDispatch(result))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Assert.assertTrue(body.contains("Fetched Before Replication"));
+    }
+
+    private String renderedSuppliers(MockHttpSession session) throws Exception {
+        MvcResult result = mockMvc
+                .perform(get("/suppliers/all").session(session))
+                .andReturn();
+
+        return mockMvc
+                .perform(asyncDispatch(result))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    private static void copy(DataSource primary, DataSource replica, Path script) throws SQLException {
+        try (Connection connection = primary.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SCRIPT TO '" + script + "'");
+        }
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("RUNSCRIPT FROM '" + script + "'");
+        }
+    }
+
+    private List<String> supplierNames(List<SupplierListViewModel> suppliers) {
+        return suppliers.stream().map(SupplierListViewModel::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * Gives the replica the primary's schema before the other application
+     * runners start reading from it.
+     */
+    @TestConfiguration
+    static class ReplicaSchema implements ApplicationRunner, Ordered {
+        private final DataSource primary;
+
+        private final DataSource replica;
+
+        ReplicaSchema(@Qualifier(ReadReplicaConfiguration.PRIMARY) DataSource primary,
+                      @Qualifier(ReadReplicaConfiguration.REPLICA) DataSource replica) {
+            this.primary = primary;
+            this.replica = replica;
+        }
+
+        @Override
+        public void run(ApplicationArguments args) throws Exception {
+            Path script = Files.createTempFile("cardealer-replica", ".sql");
+            try {
+                copy(this.primary, this.replica, script);
+            } finally {
+                Files.delete(script);
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package org.softuni.cardealer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.softuni.cardealer.domain.entities.Customer;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.SalesRollupDimension;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.domain.models.service.CustomerServiceModel;
+import org.softuni.cardealer.domain.models.service.PartSaleServiceModel;
+import org.softuni.cardealer.domain.models.service.PartServiceModel;
+import org.softuni.cardealer.domain.models.service.SalesRollupServiceModel;
+import org.softuni.cardealer.mapping.DtoMapper;
+import org.softuni.cardealer.repository.CarRepository;
+import org.softuni.cardealer.repository.CarSaleRepository;
+import org.softuni.cardealer.repository.CustomerRepository;
+import org.softuni.cardealer.repository.PartRepository;
+import org.softuni.cardealer.repository.PartSaleRepository;
+import org.softuni.cardealer.repository.SalesRollupRepository;
+import org.softuni.cardealer.repository.SupplierRepository;
+import org.softuni.cardealer.service.SaleLogEntry;
+import org.softuni.cardealer.service.SaleService;
+import org.softuni.cardealer.service.SaleWriteAheadLog;
+import org.softuni.cardealer.service.SaleWriteBehindWriter;
+import org.softuni.cardealer.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "cardealer.sales.write-behind.enabled=true",
+        "cardealer.sales.write-behind.directory=${java.io.tmpdir}/cardealer-sales-wal-${random.uuid}",
+        "cardealer.sales.write-behind.flush-interval-ms=20"
+})
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class SaleWriteBehindTests {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private PartSaleRepository partSaleRepository;
+
+    @Autowired
+    private CarSaleRepository carSaleRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private DtoMapper dtoMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Customer customer;
+
+    private Part part;
+
+    @Before
+    public void savePart() {
+        customer = new Customer();
+        customer.setName("walCustomer");
+        customer.setBirthDate(LocalDate.of(1990, 1, 1));
+        customer.setIsYoungDriver(false);
+        customer = customerRepository.saveAndFlush(customer);
+
+        Supplier supplier = new Supplier();
+        supplier.setName("walSupplier");
+        supplier.setIsImporter(false);
+        supplier = supplierRepository.saveAndFlush(supplier);
+
+        part = new Part();
+        part.setName("walPart");
+        part.setPrice(new BigDecimal("10.00"));
+        part.setSupplier(supplier);
+        part = partRepository.saveAndFlush(part);
+    }
+
+    @After
+    public void deleteSales() {
+        salesRollupRepository.deleteAll();
+        partSaleRepository.deleteAll();
+        partRepository.deleteAll();
+        supplierRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    public void salePart_ShouldBeAcknowledgedAndWrittenBehind() throws Exception {
+        PartSaleServiceModel sale = new PartSaleServiceModel();
+        sale.setCustomer(dtoMapper.map(customer, CustomerServiceModel.class));
+        sale.setPart(dtoMapper.map(part, PartServiceModel.class));
+        sale.setQuantity(3);
+        sale.setDiscount(0.5);
+
+        String id = saleService.salePart(sale).getId();
+        Assert.assertNotNull(id);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!partSaleRepository.existsById(id) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        Assert.assertTrue(partSaleRepository.existsById(id));
+        SalesRollupServiceModel rollup = salesRollupService.findRollup(SalesRollupDimension.PART, part.getId());
+        Assert.assertEquals(3, rollup.getQuantity());
+        Assert.assertEquals(0, new BigDecimal("15.00").compareTo(rollup.getRevenue()));
+    }
+
+    @Test
+    public void salePart_WithUnknownCustomer_ShouldNotBeLogged() {
+        CustomerServiceModel unknown = new CustomerServiceModel();
+        unknown.setId(UUID.randomUUID().toString());
+        PartSaleServiceModel sale = new PartSaleServiceModel();
+        sale.setCustomer(unknown);
+        sale.setPart(dtoMapper.map(part, PartServiceModel.class));
+        sale.setQuantity(1);
+        sale.setDiscount(0.0);
+
+        try {
+            saleService.salePart(sale);
+            Assert.fail("A sale for an unknown customer was logged");
+        } catch (IllegalArgumentException expected) {
+            Assert.assertTrue(expected.getMessage().contains(unknown.getId()));
+        }
+    }
+
+    @Test
+    public void drainer_ShouldDeadLetterRejectedSalesAndMoveOn() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        SaleLogEntry rejected = partSaleEntry(UUID.randomUUID().toString());
+        SaleLogEntry accepted = partSaleEntry(customer.getId());
+        try (SaleWriteAheadLog log = new SaleWriteAheadLog(directory.resolve("sales.wal"), objectMapper,
+                0, Long.MAX_VALUE, x -> { })) {
+            log.append(rejected);
+            log.append(accepted);
+        }
+
+        SaleWriteBehindWriter writer = new SaleWriteBehindWriter(carSaleRepository, partSaleRepository,
+                customerRepository, carRepository, partRepository, salesRollupService, entityManager,
+                objectMapper, transactionManager, directory.toString(), 500, 20, Long.MAX_VALUE);
+        writer.start();
+        try {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!partSaleRepository.existsById(accepted.getId()) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        } finally {
+            writer.stop();
+        }
+
+        Assert.assertTrue(partSaleRepository.existsById(accepted.getId()));
+        Assert.assertFalse(partSaleRepository.existsById(rejected.getId()));
+        Assert.assertTrue(new String(Files.readAllBytes(directory.resolve("sales.dead-letter")), StandardCharsets.UTF_8)
+                .contains(rejected.getId()));
+        Assert.assertEquals(2, ByteBuffer.wrap(Files.readAllBytes(directory.resolve("sales.checkpoint"))).getLong());
+    }
+
+    @Test
+    public void writeAheadLog_ShouldReplayAfterCheckpointAndCutTornTail() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("sales.wal");
+        List<SaleLogEntry> durable = new ArrayList<>();
+
+        try (SaleWriteAheadLog log = new SaleWriteAheadLog(file, objectMapper, 0, Long.MAX_VALUE, durable::addAll)) {
+            for (int i = 0; i < 3; i++) {
+                SaleLogEntry entry = new SaleLogEntry();
+                entry.setType(SaleLogEntry.PART);
+                entry.setId("sale" + i);
+                log.append(entry);
+            }
+        }
+        long intactSize = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        Assert.assertEquals(3, durable.size());
+
+        try (SaleWriteAheadLog log = new SaleWriteAheadLog(file, objectMapper, 1, Long.MAX_VALUE, x -> { })) {
+            Assert.assertEquals(intactSize, Files.size(file));
+            Assert.assertEquals("[sale1, sale2]", log.getRecovered().stream()
+                    .map(SaleLogEntry::getId)
+                    .collect(Collectors.toList())
+                    .toString());
+            Assert.assertEquals(4, log.append(new SaleLogEntry()).getSequence());
+        }
+    }
+
+    @Test
+    public void writeAheadLog_InterruptedAppend_ShouldWaitForTheWrite() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("sales.wal");
+
+        try (SaleWriteAheadLog log = new SaleWriteAheadLog(file, objectMapper, 0, Long.MAX_VALUE, x -> { })) {
+            Thread.currentThread().interrupt();
+            SaleLogEntry written = log.append(new SaleLogEntry());
+
+            Assert.assertTrue(Thread.interrupted());
+            Assert.assertEquals(1, written.getSequence());
+        }
+    }
+
+    @Test
+    public void writeAheadLog_AppendsRacingClose_ShouldNotBlock() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("sales.wal");
+        SaleWriteAheadLog log = new SaleWriteAheadLog(file, objectMapper, 0, Long.MAX_VALUE, x -> { });
+
+        List<Thread> appenders = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread appender = new Thread(() -> {
+                try {
+                    while (true) {
+                        log.append(new SaleLogEntry());
+                    }
+                } catch (IllegalStateException | IOException e) {
+                    // refused once the log is closed
+                }
+            });
+            appender.start();
+            appenders.add(appender);
+        }
+
+        Thread.sleep(100);
+        log.close();
+
+        for (Thread appender : appenders) {
+            appender.join(5_000);
+            Assert.assertFalse(appender.isAlive());
+        }
+    }
+
+    private SaleLogEntry partSaleEntry(String customerId) {
+        SaleLogEntry entry = new SaleLogEntry();
+        entry.setType(SaleLogEntry.PART);
+        entry.setId(UUID.randomUUID().toString());
+        entry.setCustomerId(customerId);
+        entry.setPartId(part.getId());
+        entry.setQuantity(1);
+        entry.setDiscount(0.0);
+        entry.setSoldOn(LocalDate.now());
+
+        return entry;
+    }
+}
@@ -0,0 +1,125 @@
+package org.softuni.cardealer;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.domain.models.service.PartRepricingServiceModel;
+import org.softuni.cardealer.domain.models.service.SupplierServiceModel;
+import org.softuni.cardealer.repository.PartRepository;
+import org.softuni.cardealer.repository.SupplierRepository;
+import org.softuni.cardealer.service.PartService;
+import org.softuni.cardealer.service.SupplierService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.Collections;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class SecondLevelCacheTests {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private SupplierService supplierService;
+
+    @Autowired
+    private PartService partService;
+
+    private Statistics statistics;
+
+    private Supplier supplier;
+
+    private Part part;
+
+    @Before
+    public void saveCatalogue() {
+        this.supplier = new Supplier();
+        this.supplier.setName("Cached Supplier");
+        this.supplier.setIsImporter(true);
+        this.supplier = this.supplierRepository.saveAndFlush(this.supplier);
+
+        this.part = new Part();
+        this.part.setName("Cached Part");
+        this.part.setPrice(new BigDecimal("10.00"));
+        this.part.setSupplier(this.supplier);
+        this.part = this.partRepository.saveAndFlush(this.part);
+
+        this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.clear();
+    }
+
+    @After
+    public void deleteCatalogue() {
+        this.partRepository.deleteAll();
+        this.supplierRepository.deleteAll();
+    }
+
+    @Test
+    public void supplierAndPartReads_ShouldHitSecondLevelCache() {
+        this.supplierService.findSupplierById(this.supplier.getId());
+        this.partService.findPartById(this.part.getId());
+
+        CacheRegionStatistics suppliers = this.statistics.getDomainDataRegionStatistics("suppliers");
+        CacheRegionStatistics parts = this.statistics.getDomainDataRegionStatistics("parts");
+        Assert.assertTrue(suppliers.getHitCount() > 0);
+        Assert.assertEquals(0, suppliers.getMissCount());
+        Assert.assertTrue(parts.getHitCount() > 0);
+        Assert.assertEquals(0, parts.getMissCount());
+    }
+
+    @Test
+    public void editedSupplier_ShouldBeReadWithNewValues() {
+        SupplierServiceModel edit = new SupplierServiceModel();
+        edit.setName("Renamed Supplier");
+        edit.setIsImporter(false);
+        this.supplierService.editSupplier(this.supplier.getId(), edit);
+
+        Assert.assertEquals("Renamed Supplier", this.supplierService.findSupplierById(this.supplier.getId()).getName());
+    }
+
+    @Test
+    public void repricedPart_ShouldBeEvictedFromSecondLevelCache() {
+        Assert.assertTrue(this.entityManagerFactory.getCache().contains(Part.class, this.part.getId()));
+
+        PartRepricingServiceModel repricing = new PartRepricingServiceModel();
+        repricing.setPartIds(Collections.singletonList(this.part.getId()));
+        repricing.setAmount(new BigDecimal("5.00"));
+        this.partService.repriceParts(repricing);
+
+        Assert.assertFalse(this.entityManagerFactory.getCache().contains(Part.class, this.part.getId()));
+        Assert.assertEquals(0, new BigDecimal("15.00").compareTo(this.partService.findPartById(this.part.getId()).getPrice()));
+    }
+
+    @Test
+    public void deletedSupplier_ShouldNotBeReadFromSecondLevelCache() {
+        this.partRepository.deleteAll();
+        this.supplierService.deleteSupplier(this.supplier.getId());
+
+        CacheRegionStatistics suppliers = this.statistics.getDomainDataRegionStatistics("suppliers");
+        long hits = suppliers.getHitCount();
+
+        Assert.assertFalse(this.supplierRepository.findById(this.supplier.getId()).isPresent());
+        Assert.assertEquals(hits, suppliers.getHitCount());
+    }
+}
@@ -0,0 +1,53 @@
+package org.softuni.cardealer;
+
+import org.junit.Assert;
+import org.softuni.cardealer.metrics.RequestStatements;
+import org.softuni.cardealer.metrics.StatementBudgetFilter;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Pins how many SQL statements an endpoint may cost, so that a change
+ * introducing an N+1 pattern or an extra scan fails the endpoint's tests.
+ * Match against the result of the async dispatch for asynchronous endpoints.
+ */
+public final class SqlStatementMatchers {
+
+    private SqlStatementMatchers() {
+    }
+
+    public static ResultMatcher statementsAtMost(int max) {
+        return result -> {
+            RequestStatements statements = statementsOf(result);
+            Assert.assertTrue("Expected at most " + max + " SQL statements but ran " + describe(statements),
+                    statements.statements() <= max);
+        };
+    }
+
+    public static ResultMatcher noRepeatedStatements() {
+        return repeatsAtMost(1);
+    }
+
+    public static ResultMatcher repeatsAtMost(int max) {
+        return result -> {
+            RequestStatements statements = statementsOf(result);
+            Assert.assertTrue("Expected no statement shape to run more than " + max + " times but ran " + describe(statements),
+                    statements.maxRepeats() <= max);
+        };
+    }
+
+    public static RequestStatements statementsOf(MvcResult result) {
+        RequestStatements statements = (RequestStatements) result.getRequest().getAttribute(StatementBudgetFilter.STATEMENTS);
+        Assert.assertNotNull("The request did not pass the statement budget filter", statements);
+
+        return statements;
+    }
+
+    private static String describe(RequestStatements statements) {
+        StringBuilder description = new StringBuilder().append(statements.statements()).append(':');
+        statements.shapes().forEach((shape, count) -> description.append(System.lineSeparator())
+                .append("  ").append(count).append("x ").append(shape));
+
+        return description.toString();
+    }
+}
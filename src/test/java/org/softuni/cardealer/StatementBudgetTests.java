@@ -0,0 +1,66 @@
+package org.softuni.cardealer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.softuni.cardealer.metrics.RequestStatements;
+import org.softuni.cardealer.metrics.StatementBudgetFilter;
+import org.softuni.cardealer.repository.SupplierRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.softuni.cardealer.SqlStatementMatchers.statementsOf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "cardealer.sql.budget.headers=true")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class StatementBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Test
+    public void repeatedQueries_ShouldShareOneShape() {
+        RequestStatements statements = RequestStatements.during(() -> {
+            for (int i = 0; i < 5; i++) {
+                this.supplierRepository.findByName("supplier " + i);
+            }
+        });
+
+        Assert.assertEquals(5, statements.statements());
+        Assert.assertEquals(1, statements.shapes().size());
+        Assert.assertEquals(5, statements.maxRepeats());
+    }
+
+    @Test
+    @WithMockUser
+    public void asyncRequests_ShouldReportStatementsInHeaders() throws Exception {
+        MvcResult result = mockMvc.perform(get("/suppliers/all")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(header().string(StatementBudgetFilter.STATEMENTS_HEADER, "1"))
+                .andExpect(header().exists(StatementBudgetFilter.ROWS_HEADER));
+    }
+
+    @Test
+    public void login_ShouldCountUserLookupAheadOfSecurity() throws Exception {
+        MvcResult result = mockMvc.perform(formLogin("/users/login").user("unknownUser").password("secret")).andReturn();
+
+        Assert.assertTrue(statementsOf(result).statements() >= 1);
+    }
+}
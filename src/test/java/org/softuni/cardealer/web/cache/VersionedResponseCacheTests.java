@@ -0,0 +1,45 @@
+package org.softuni.cardealer.web.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class VersionedResponseCacheTests {
+
+    private final VersionedResponseCache cache = new VersionedResponseCache(new ObjectMapper(), 1024);
+
+    @Test
+    public void writeArray_WithCachedVersion_ShouldServeCachedBody() throws Exception {
+        this.write(1, "first");
+
+        Assert.assertEquals("[\"first\"]", this.write(1, "changed"));
+    }
+
+    @Test
+    public void writeArray_FromOlderVersion_ShouldNotReplaceNewerBody() throws Exception {
+        this.write(2, "newer");
+        // a request that read version 1 and finishes after the one for version 2
+        Assert.assertEquals("[\"older\"]", this.write(1, "older"));
+
+        Assert.assertEquals("[\"newer\"]", this.write(2, "reloaded"));
+    }
+
+    @Test
+    public void writeArray_FromNewerVersion_ShouldReplaceBody() throws Exception {
+        this.write(1, "older");
+        this.write(2, "newer");
+
+        Assert.assertEquals("[\"newer\"]", this.write(2, "reloaded"));
+    }
+
+    private String write(long version, String row) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.cache.writeArray(version, out, consumer -> List.of(row).forEach(consumer));
+
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
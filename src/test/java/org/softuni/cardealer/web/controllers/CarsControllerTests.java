@@ -26,10 +26,25 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.softuni.cardealer.AsyncRequests.performAsync;
+import static org.softuni.cardealer.SqlStatementMatchers.noRepeatedStatements;
+import static org.softuni.cardealer.SqlStatementMatchers.statementsAtMost;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
 @RunWith(SpringRunner.class)
@@ -56,9 +71,9 @@ public class CarsControllerTests {
     @Test
     @WithMockUser
     public void allCars_ShouldReturnCorrectView() throws Exception {
-        mockMvc
-                .perform(get("/cars/all"))
-                .andExpect(view().name("all-cars"));
+        performAsync(mockMvc, get("/cars/all"))
+                .andExpect(view().name("all-cars"))
+                .andExpect(model().attribute("cars", instanceOf(List.class)));
     }
 
     @Test
@@ -95,4 +110,156 @@ public class CarsControllerTests {
         Assert.assertEquals(expected, car.getTravelledDistance());
 
     }
+
+    @Test
+    @WithMockUser
+    public void addCar_ShouldAssignTimeOrderedId() throws Exception {
+        carRepository.deleteAll();
+        long before = System.currentTimeMillis();
+        mockMvc
+                .perform(post("/cars/add")
+                        .param("make", "someMake")
+                        .param("model", "someModel")
+                        .param("travelledDistance", "123")
+                        .param("parts", "1")
+                );
+        long after = System.currentTimeMillis();
+        UUID id = UUID.fromString(carRepository.findAll().get(0).getId());
+
+        Assert.assertEquals(7, id.version());
+        Assert.assertTrue(id.getMostSignificantBits() >>> 16 >= before);
+        Assert.assertTrue(id.getMostSignificantBits() >>> 16 <= after);
+    }
+
+    @Test
+    @WithMockUser
+    public void addCar_ShouldResolvePartsInOneBatch() throws Exception {
+        mockMvc
+                .perform(post("/cars/add")
+                        .param("make", "someMake")
+                        .param("model", "someModel")
+                        .param("travelledDistance", "123")
+                        .param("parts", "1", "2", "3")
+                );
+
+        verify(mockPartRepository, times(1)).findAllById(Arrays.asList("1", "2", "3"));
+        verify(mockPartRepository, never()).findById(any());
+    }
+
+    @Test
+    @WithMockUser
+    public void allCars_WithSize_ShouldReturnKeysetPage() throws Exception {
+        carRepository.deleteAll();
+        for (String make : Arrays.asList("c", "a", "b")) {
+            Car car = new Car();
+            car.setMake(make);
+            car.setModel("someModel");
+            car.setTravelledDistance(1L);
+            car.setParts(Collections.emptyList());
+            carRepository.saveAndFlush(car);
+        }
+
+        performAsync(mockMvc, get("/cars/all").param("size", "2"))
+                .andExpect(model().attribute("cars", hasSize(2)))
+                .andExpect(model().attribute("offset", 0))
+                .andExpect(model().attribute("next", hasProperty("make", is("b"))));
+
+        String afterId = carRepository.findAll().stream()
+                .filter(x -> x.getMake().equals("b")).findFirst().get().getId();
+
+        performAsync(mockMvc, get("/cars/all")
+                        .param("size", "2")
+                        .param("afterMake", "b")
+                        .param("afterId", afterId)
+                        .param("offset", "2"))
+                .andExpect(model().attribute("cars", hasSize(1)))
+                .andExpect(model().attribute("offset", 2))
+                .andExpect(model().attributeDoesNotExist("next"))
+                .andExpect(statementsAtMost(1))
+                .andExpect(noRepeatedStatements());
+    }
+
+    @Test
+    @WithMockUser
+    public void allCars_WithSizeOutOfRange_ShouldClampPageSize() throws Exception {
+        carRepository.deleteAll();
+        for (String make : Arrays.asList("a", "b")) {
+            Car car = new Car();
+            car.setMake(make);
+            car.setModel("someModel");
+            car.setTravelledDistance(1L);
+            car.setParts(Collections.emptyList());
+            carRepository.saveAndFlush(car);
+        }
+
+        performAsync(mockMvc, get("/cars/all").param("size", "0"))
+                .andExpect(model().attribute("size", 1))
+                .andExpect(model().attribute("cars", hasSize(1)))
+                .andExpect(model().attribute("next", hasProperty("make", is("a"))));
+
+        performAsync(mockMvc, get("/cars/all").param("size", "-5"))
+                .andExpect(model().attribute("size", 1));
+
+        performAsync(mockMvc, get("/cars/all").param("size", "1000000"))
+                .andExpect(model().attribute("size", 100))
+                .andExpect(model().attribute("cars", hasSize(2)))
+                .andExpect(model().attributeDoesNotExist("next"));
+    }
+
+    @Test
+    @WithMockUser
+    public void carDetails_ShouldRenderModalsForCar() throws Exception {
+        Car car = new Car();
+        car.setMake("someMake");
+        car.setModel("someModel");
+        car.setTravelledDistance(1L);
+        car.setParts(Collections.emptyList());
+        car = carRepository.saveAndFlush(car);
+
+        String actual = performAsync(mockMvc, get("/cars/" + car.getId() + "/details"))
+                .andExpect(view().name("fragments/modals/car/car-modals"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Assert.assertTrue(actual.contains("details-car-modal-" + car.getId()));
+        Assert.assertTrue(actual.contains("edit-car-modal-" + car.getId()));
+        Assert.assertTrue(actual.contains("delete-car-modal-" + car.getId()));
+    }
+
+    @Test
+    @WithMockUser
+    public void searchCars_ShouldFollowSavesAndDeletes() throws Exception {
+        Car car = new Car();
+        car.setMake("Škoda");
+        car.setModel("Octavia RS");
+        car.setTravelledDistance(1L);
+        car.setParts(Collections.emptyList());
+        car = carRepository.saveAndFlush(car);
+
+        mockMvc
+                .perform(get("/cars/search").param("q", "skoda tav"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(car.getId())))
+                .andExpect(jsonPath("$[0].model", is("Octavia RS")));
+        mockMvc
+                .perform(get("/cars/search").param("q", "oc r"))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        car.setModel("Fabia");
+        car = carRepository.saveAndFlush(car);
+
+        mockMvc
+                .perform(get("/cars/search").param("q", "octavia"))
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc
+                .perform(get("/cars/search").param("q", "Fab"))
+                .andExpect(jsonPath("$[0].id", is(car.getId())));
+
+        carRepository.delete(car);
+
+        mockMvc
+                .perform(get("/cars/search").param("q", "fabia"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
 }
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.Optional;
 
 import static org.mockito.Mockito.when;
+import static org.softuni.cardealer.AsyncRequests.performAsync;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -41,8 +42,7 @@ public class CustomersControllerTests {
     @Test
     @WithMockUser
     public void allCustomers_ShouldReturnCorrectView() throws Exception {
-        mockMvc
-                .perform(get("/customers/all"))
+        performAsync(mockMvc, get("/customers/all"))
                 .andExpect(view().name("all-customers"));
     }
 
@@ -74,5 +74,4 @@ public class CustomersControllerTests {
         Assert.assertEquals("someName", customer.getName());
         Assert.assertEquals("1881-01-12", customer.getBirthDate().toString());
     }
-
 }
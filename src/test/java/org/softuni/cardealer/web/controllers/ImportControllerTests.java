@@ -0,0 +1,146 @@
+package org.softuni.cardealer.web.controllers;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.repository.CarRepository;
+import org.softuni.cardealer.repository.PartRepository;
+import org.softuni.cardealer.repository.SupplierRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.is;
+import static org.softuni.cardealer.AsyncRequests.performAsync;
+import static org.softuni.cardealer.SqlStatementMatchers.noRepeatedStatements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class ImportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @After
+    public void deleteImportedRows() {
+        carRepository.deleteAll();
+        partRepository.deleteAll();
+        supplierRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser
+    public void importSuppliers_ShouldSaveValidRowsAndReportInvalidOnes() throws Exception {
+        performAsync(mockMvc, post("/import/suppliers")
+                        .contentType("text/csv")
+                        .content("name,isImporter\n" +
+                                "importedSupplier,true\n" +
+                                "\"Imported, Quoted\",false\n" +
+                                "\n" +
+                                "badSupplier,maybe\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(5)));
+
+        Supplier supplier = supplierRepository.findAll().stream()
+                .filter(x -> x.getName().equals("Imported, Quoted"))
+                .findFirst()
+                .orElseThrow();
+
+        Assert.assertFalse(supplier.getIsImporter());
+    }
+
+    @Test
+    @WithMockUser
+    public void importParts_ShouldResolveSuppliersByName() throws Exception {
+        Supplier supplier = new Supplier();
+        supplier.setName("partImportSupplier");
+        supplier.setIsImporter(true);
+        supplierRepository.saveAndFlush(supplier);
+
+        performAsync(mockMvc, post("/import/parts")
+                        .contentType("text/csv")
+                        .content("name,price,supplierName\r\n" +
+                                "importedPart,12.50,partImportSupplier\r\n" +
+                                "orphanPart,1,missingSupplier\r\n" +
+                                "cheapPart,free,partImportSupplier\r\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.failed", is(2)))
+                .andExpect(jsonPath("$.errors[0].message", is("Unknown supplier 'missingSupplier'")))
+                .andExpect(jsonPath("$.errors[1].line", is(4)));
+
+        Part part = partRepository.findAll().stream()
+                .filter(x -> x.getName().equals("importedPart"))
+                .findFirst()
+                .orElseThrow();
+
+        Assert.assertEquals(new BigDecimal("12.50"), part.getPrice());
+        Assert.assertEquals("partImportSupplier", part.getSupplier().getName());
+    }
+
+    @Test
+    @WithMockUser
+    public void importCars_ShouldLinkPartsByName() throws Exception {
+        Supplier supplier = new Supplier();
+        supplier.setName("carImportSupplier");
+        supplier.setIsImporter(false);
+        supplierRepository.saveAndFlush(supplier);
+
+        for (String name : new String[]{"carImportFirstPart", "carImportSecondPart"}) {
+            Part part = new Part();
+            part.setName(name);
+            part.setPrice(BigDecimal.ONE);
+            part.setSupplier(supplier);
+            partRepository.saveAndFlush(part);
+        }
+        entityManagerFactory.getCache().evictAll();
+
+        performAsync(mockMvc, post("/import/cars")
+                        .contentType("text/csv")
+                        .content("make,model,travelledDistance,partNames\n" +
+                                "importedMake,importedModel,1000,carImportFirstPart|carImportSecondPart\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.failed", is(0)))
+                .andExpect(noRepeatedStatements());
+
+        Car car = carRepository.findAll().stream()
+                .filter(x -> x.getMake().equals("importedMake"))
+                .findFirst()
+                .orElseThrow();
+
+        Assert.assertEquals(2, car.getParts().size());
+        Assert.assertEquals(0, new BigDecimal("2").compareTo(car.getPrice()));
+    }
+}
@@ -3,8 +3,10 @@ package org.softuni.cardealer.web.controllers;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.softuni.cardealer.domain.entities.Car;
 import org.softuni.cardealer.domain.entities.Part;
 import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.repository.CarRepository;
 import org.softuni.cardealer.repository.PartRepository;
 import org.softuni.cardealer.repository.SupplierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,14 +14,22 @@ import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.softuni.cardealer.AsyncRequests.performAsync;
+import static org.softuni.cardealer.SqlStatementMatchers.noRepeatedStatements;
+import static org.softuni.cardealer.SqlStatementMatchers.statementsAtMost;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
@@ -38,6 +48,9 @@ public class PartControllerTests {
     @Autowired
     private SupplierRepository supplierRepository;
 
+    @Autowired
+    private CarRepository carRepository;
+
     private Part first;
     private Part second;
 
@@ -89,11 +102,27 @@ public class PartControllerTests {
     @Test
     @WithMockUser
     public void allParts_ShouldReturnCorrectView() throws Exception {
-        mockMvc
-                .perform(get("/parts/all"))
+        performAsync(mockMvc, get("/parts/all"))
                 .andExpect(view().name("all-parts"));
     }
 
+    @Test
+    @WithMockUser
+    public void allParts_ShouldRenderPartsWithSupplierNames() throws Exception {
+        saveTheTwoPartsWithIds();
+
+        String actual = performAsync(mockMvc, get("/parts/all"))
+                .andExpect(statementsAtMost(1))
+                .andExpect(noRepeatedStatements())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Assert.assertTrue(actual.contains("firstPart"));
+        Assert.assertTrue(actual.contains("firstSupplier"));
+        Assert.assertTrue(actual.contains("secondSupplier"));
+    }
+
     @Test
     @WithMockUser
     public void addPart_SaveCorrectPart_RedirectCorrectView() throws Exception {
@@ -131,6 +160,24 @@ public class PartControllerTests {
 
     }
 
+    @Test
+    @WithMockUser
+    public void addPart_WithSupplierId_ShouldResolveSupplierById() throws Exception {
+        partRepository.deleteAll();
+        saveTheTwoSuppliersWithIds();
+
+        mockMvc
+                .perform(post("/parts/add")
+                        .param("name", "somePart")
+                        .param("price", "1")
+                        .param("supplier", "firstSupplier")
+                        .param("supplierId", secondSupplier.getId())
+                );
+        Part part = partRepository.findAll().get(0);
+
+        Assert.assertEquals(secondSupplier.getId(), part.getSupplier().getId());
+    }
+
     @Test
     @WithMockUser
     public void editPart_ShouldEditPart() throws Exception {
@@ -178,6 +225,111 @@ public class PartControllerTests {
         Assert.assertNull(partRepository.findById(first.getId()).orElse(null));
     }
 
+    @Test
+    @WithMockUser
+    public void deletePart_ShouldRemovePartFromCars() throws Exception {
+        saveTheTwoPartsWithIds();
+        Car car = new Car();
+        car.setMake("someMake");
+        car.setModel("someModel");
+        car.setTravelledDistance(1L);
+        car.setParts(Arrays.asList(first, second));
+        car = carRepository.saveAndFlush(car);
+
+        mockMvc
+                .perform(post("/parts/delete/" + first.getId()))
+                .andExpect(statementsAtMost(3));
+
+        Car actual = carRepository.findById(car.getId()).orElse(null);
+
+        assert actual != null;
+        Assert.assertEquals(1, actual.getParts().size());
+        Assert.assertEquals(second.getId(), actual.getParts().get(0).getId());
+        Assert.assertEquals(0, BigDecimal.TEN.compareTo(actual.getPrice()));
+        carRepository.delete(actual);
+    }
+
+    @Test
+    @WithMockUser
+    public void editPart_ShouldRepriceCarsContainingPart() throws Exception {
+        saveTheTwoPartsWithIds();
+        Car car = new Car();
+        car.setMake("someMake");
+        car.setModel("someModel");
+        car.setTravelledDistance(1L);
+        car.setParts(Arrays.asList(first, second));
+        car = carRepository.saveAndFlush(car);
+        Assert.assertEquals(0, new BigDecimal("11").compareTo(car.getPrice()));
+
+        mockMvc
+                .perform(post("/parts/edit/" + first.getId())
+                        .param("name", first.getName())
+                        .param("price", "5")
+                );
+
+        Car actual = carRepository.findById(car.getId()).orElse(null);
+
+        assert actual != null;
+        Assert.assertEquals(0, new BigDecimal("15").compareTo(actual.getPrice()));
+        carRepository.delete(actual);
+    }
+
+    @Test
+    @WithMockUser
+    public void repriceParts_ShouldUpdatePartsAndCarsInBulk() throws Exception {
+        Supplier supplier = new Supplier();
+        supplier.setName("repriceSupplier");
+        supplier.setIsImporter(false);
+        supplier = supplierRepository.saveAndFlush(supplier);
+
+        Part cheap = new Part();
+        cheap.setName("cheapPart");
+        cheap.setPrice(new BigDecimal("10.00"));
+        cheap.setSupplier(supplier);
+        cheap = partRepository.saveAndFlush(cheap);
+
+        Part dear = new Part();
+        dear.setName("dearPart");
+        dear.setPrice(new BigDecimal("20.00"));
+        dear.setSupplier(supplier);
+        dear = partRepository.saveAndFlush(dear);
+
+        Car car = new Car();
+        car.setMake("repriceMake");
+        car.setModel("repriceModel");
+        car.setTravelledDistance(1L);
+        car.setParts(Arrays.asList(cheap, dear));
+        car = carRepository.saveAndFlush(car);
+
+        performAsync(mockMvc, post("/parts/reprice")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"supplier\":\"repriceSupplier\",\"percent\":4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected", is(2)));
+
+        Assert.assertEquals(0, new BigDecimal("10.40").compareTo(partRepository.findById(cheap.getId()).get().getPrice()));
+        Assert.assertEquals(0, new BigDecimal("31.20").compareTo(carRepository.findById(car.getId()).get().getPrice()));
+
+        performAsync(mockMvc, post("/parts/reprice")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"partIds\":[\"" + cheap.getId() + "\"],\"amount\":-15}"))
+                .andExpect(jsonPath("$.affected", is(1)));
+
+        Assert.assertEquals(0, BigDecimal.ZERO.compareTo(partRepository.findById(cheap.getId()).get().getPrice()));
+        Assert.assertEquals(0, new BigDecimal("20.80").compareTo(carRepository.findById(car.getId()).get().getPrice()));
+
+        carRepository.delete(car);
+    }
+
+    @Test
+    @WithMockUser
+    public void repriceParts_WithPercentAndAmount_ShouldReturnBadRequest() throws Exception {
+        performAsync(mockMvc, post("/parts/reprice")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"partIds\":[],\"percent\":4,\"amount\":1}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     public void deletePart_EditCorrectPart_RedirectCorrectView() throws Exception {
@@ -197,8 +349,7 @@ public class PartControllerTests {
         partRepository.deleteAll();
         saveTheTwoPartsWithIds();
 
-        String actual = mockMvc
-                .perform(get("/parts/fetch/"))
+        String actual = performAsync(mockMvc, get("/parts/fetch/"))
                 .andExpect(status().isOk())
                 .andReturn()
                 .getResponse()
@@ -211,4 +362,84 @@ public class PartControllerTests {
 
         Assert.assertEquals(expected, actual);
     }
+
+    @Test
+    @WithMockUser
+    public void partDetails_ShouldRenderModalsForPart() throws Exception {
+        saveTheTwoPartsWithIds();
+
+        String actual = performAsync(mockMvc, get("/parts/" + first.getId() + "/details"))
+                .andExpect(view().name("fragments/modals/part/part-modals"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Assert.assertTrue(actual.contains("details-part-modal-" + first.getId()));
+        Assert.assertTrue(actual.contains("edit-part-modal-" + first.getId()));
+        Assert.assertTrue(actual.contains("delete-part-modal-" + first.getId()));
+    }
+
+    @Test
+    @WithMockUser
+    public void fetchParts_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        saveTheTwoPartsWithIds();
+
+        String etag = performAsync(mockMvc, get("/parts/fetch"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc
+                .perform(get("/parts/fetch").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc
+                .perform(post("/parts/edit/" + first.getId())
+                        .param("name", "someOtherName")
+                        .param("price", "1")
+                );
+
+        mockMvc
+                .perform(get("/parts/fetch").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser
+    public void searchParts_ShouldMatchPartAndSupplierNames() throws Exception {
+        Supplier supplier = new Supplier();
+        supplier.setName("Brembo");
+        supplier.setIsImporter(true);
+        supplier = supplierRepository.saveAndFlush(supplier);
+
+        Part part = new Part();
+        part.setName("Ceramic brake pads");
+        part.setPrice(BigDecimal.TEN);
+        part.setSupplier(supplier);
+        part = partRepository.saveAndFlush(part);
+
+        mockMvc
+                .perform(get("/parts/search").param("q", "brembo cera"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(part.getId())))
+                .andExpect(jsonPath("$[0].supplierName", is("Brembo")));
+
+        supplier.setName("Bosch");
+        supplierRepository.saveAndFlush(supplier);
+
+        mockMvc
+                .perform(get("/parts/search").param("q", "brembo"))
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc
+                .perform(get("/parts/search").param("q", "bosch pads"))
+                .andExpect(jsonPath("$[0].supplierName", is("Bosch")));
+
+        partRepository.delete(part);
+        supplierRepository.delete(supplier);
+
+        mockMvc
+                .perform(get("/parts/search").param("q", "bosch pads"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
 }
@@ -0,0 +1,336 @@
+package org.softuni.cardealer.web.controllers;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.softuni.cardealer.domain.entities.Car;
+import org.softuni.cardealer.domain.entities.CarSale;
+import org.softuni.cardealer.domain.entities.Customer;
+import org.softuni.cardealer.domain.entities.Part;
+import org.softuni.cardealer.domain.entities.PartSale;
+import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.domain.models.service.CustomerServiceModel;
+import org.softuni.cardealer.domain.models.service.PartSaleServiceModel;
+import org.softuni.cardealer.domain.models.service.PartServiceModel;
+import org.softuni.cardealer.mapping.DtoMapper;
+import org.softuni.cardealer.repository.CarRepository;
+import org.softuni.cardealer.repository.CarSaleRepository;
+import org.softuni.cardealer.repository.CustomerRepository;
+import org.softuni.cardealer.repository.PartRepository;
+import org.softuni.cardealer.repository.PartSaleRepository;
+import org.softuni.cardealer.repository.SalesRollupRepository;
+import org.softuni.cardealer.repository.SupplierRepository;
+import org.softuni.cardealer.service.SaleService;
+import org.softuni.cardealer.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.softuni.cardealer.AsyncRequests.performAsync;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class SalesControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private CarSaleRepository carSaleRepository;
+
+    @Autowired
+    private PartSaleRepository partSaleRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DtoMapper dtoMapper;
+
+    private Customer customer;
+
+    private Part part;
+
+    private CarSale carSale;
+
+    private PartSale partSale;
+
+    @Before
+    public void saveSales() {
+        customer = new Customer();
+        customer.setName("Smith, John");
+        customer.setBirthDate(LocalDate.of(1990, 1, 1));
+        customer.setIsYoungDriver(false);
+        customer = customerRepository.saveAndFlush(customer);
+
+        Supplier supplier = new Supplier();
+        supplier.setName("exportSupplier");
+        supplier.setIsImporter(true);
+        supplier = supplierRepository.saveAndFlush(supplier);
+
+        part = new Part();
+        part.setName("exportPart");
+        part.setPrice(new BigDecimal("12.50"));
+        part.setSupplier(supplier);
+        part = partRepository.saveAndFlush(part);
+
+        Car car = new Car();
+        car.setMake("exportMake");
+        car.setModel("exportModel");
+        car.setTravelledDistance(1L);
+        car.setParts(Collections.singletonList(part));
+        car = carRepository.saveAndFlush(car);
+
+        carSale = new CarSale();
+        carSale.setCustomer(customer);
+        carSale.setCar(car);
+        carSale.setDiscount(0.1);
+        carSale.setSoldOn(LocalDate.of(2019, 3, 1));
+        carSale = carSaleRepository.saveAndFlush(carSale);
+
+        partSale = new PartSale();
+        partSale.setCustomer(customer);
+        partSale.setPart(part);
+        partSale.setQuantity(3);
+        partSale.setDiscount(0.0);
+        partSale.setSoldOn(LocalDate.of(2019, 3, 1));
+        partSale = partSaleRepository.saveAndFlush(partSale);
+    }
+
+    @After
+    public void deleteSales() {
+        salesRollupRepository.deleteAll();
+        carSaleRepository.deleteAll();
+        partSaleRepository.deleteAll();
+        carRepository.deleteAll();
+        partRepository.deleteAll();
+        supplierRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser
+    public void exportSales_AsCsv_ShouldJoinNamesIntoRows() throws Exception {
+        String actual = this.export("csv", "text/csv;charset=UTF-8");
+
+        Assert.assertTrue(actual.startsWith("type,id,customer,item,quantity,price,discount\n"));
+        Assert.assertTrue(actual.contains("car," + carSale.getId() + ",\"Smith, John\",exportMake exportModel,1,12.50,0.1\n"));
+        Assert.assertTrue(actual.contains("part," + partSale.getId() + ",\"Smith, John\",exportPart,3,12.50,0.0\n"));
+    }
+
+    @Test
+    @WithMockUser
+    public void exportSales_AsCsv_ShouldNeutralizeFormulas() throws Exception {
+        customer.setName("=HYPERLINK(\"http://example.com\")");
+        customerRepository.saveAndFlush(customer);
+        part.setName("@SUM(A1:A2)");
+        partRepository.saveAndFlush(part);
+
+        String actual = this.export("csv", "text/csv;charset=UTF-8");
+
+        Assert.assertTrue(actual.contains(",\"'=HYPERLINK(\"\"http://example.com\"\")\",'@SUM(A1:A2),3,12.50,0.0\n"));
+    }
+
+    @Test
+    @WithMockUser
+    public void exportSales_AsNdjson_ShouldWriteOneObjectPerLine() throws Exception {
+        String[] lines = this.export("ndjson", "application/x-ndjson;charset=UTF-8").split("\n");
+
+        Assert.assertEquals(2, lines.length);
+        Assert.assertTrue(lines[0].startsWith("{\"type\":\"car\",\"id\":\"" + carSale.getId() + "\""));
+        Assert.assertTrue(lines[1].contains("\"item\":\"exportPart\",\"quantity\":3,\"price\":12.50"));
+    }
+
+    @Test
+    @WithMockUser
+    public void exportSales_WithUnknownFormat_ShouldReturnBadRequest() throws Exception {
+        mockMvc
+                .perform(get("/sales/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    public void exportSales_ShouldUseItsOwnAsyncTimeout() throws Exception {
+        MvcResult result = mockMvc
+                .perform(get("/sales/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result));
+
+        Assert.assertEquals(1_800_000L, result.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    @WithMockUser
+    public void rebuildSalesRollups_ShouldAggregateAllSales() throws Exception {
+        performAsync(mockMvc, post("/sales/rollups/rebuild"))
+                .andExpect(view().name("redirect:/sales/rollups/day"));
+
+        performAsync(mockMvc, get("/sales/rollups/customer/" + customer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.salesCount", is(2)))
+                .andExpect(jsonPath("$.quantity", is(4)))
+                .andExpect(jsonPath("$.revenue", is(48.75)));
+
+        performAsync(mockMvc, get("/sales/rollups/day/2019-03-01"))
+                .andExpect(jsonPath("$.revenue", is(48.75)));
+
+        performAsync(mockMvc, get("/sales/rollups/supplier"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].quantity", is(4)));
+    }
+
+    @Test
+    @WithMockUser
+    public void salePart_ShouldUpdateRollupsIncrementally() throws Exception {
+        performAsync(mockMvc, post("/sales/rollups/rebuild"));
+
+        PartSaleServiceModel sale = new PartSaleServiceModel();
+        sale.setCustomer(dtoMapper.map(customer, CustomerServiceModel.class));
+        sale.setPart(dtoMapper.map(part, PartServiceModel.class));
+        sale.setQuantity(2);
+        sale.setDiscount(0.5);
+        saleService.salePart(sale);
+
+        performAsync(mockMvc, get("/sales/rollups/part/" + part.getId()))
+                .andExpect(jsonPath("$.salesCount", is(3)))
+                .andExpect(jsonPath("$.quantity", is(6)))
+                .andExpect(jsonPath("$.revenue", is(61.25)));
+    }
+
+    @Test
+    @WithMockUser
+    public void salePart_DuringRebuild_ShouldWaitForRebuildToCommit() throws Exception {
+        Supplier otherSupplier = new Supplier();
+        otherSupplier.setName("otherSupplier");
+        otherSupplier.setIsImporter(false);
+        otherSupplier = supplierRepository.saveAndFlush(otherSupplier);
+
+        Part otherPart = new Part();
+        otherPart.setName("otherPart");
+        otherPart.setPrice(new BigDecimal("10.00"));
+        otherPart.setSupplier(otherSupplier);
+        otherPart = partRepository.saveAndFlush(otherPart);
+
+        Customer otherCustomer = new Customer();
+        otherCustomer.setName("Doe, Jane");
+        otherCustomer.setBirthDate(LocalDate.of(1995, 1, 1));
+        otherCustomer.setIsYoungDriver(true);
+        otherCustomer = customerRepository.saveAndFlush(otherCustomer);
+
+        PartSaleServiceModel sale = new PartSaleServiceModel();
+        sale.setCustomer(dtoMapper.map(otherCustomer, CustomerServiceModel.class));
+        sale.setPart(dtoMapper.map(otherPart, PartServiceModel.class));
+        sale.setQuantity(1);
+        sale.setDiscount(0.0);
+        sale.setSoldOn(LocalDate.of(2019, 4, 1));
+
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    salesRollupService.rebuild();
+                    rebuilt.countDown();
+                    try {
+                        commit.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    return null;
+                }));
+        Assert.assertTrue(rebuilt.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> recorded = CompletableFuture.runAsync(() -> saleService.salePart(sale));
+        try {
+            recorded.get(500, TimeUnit.MILLISECONDS);
+            Assert.fail("The sale was recorded before the rebuild committed");
+        } catch (TimeoutException expected) {
+            // still waiting for the rebuild
+        }
+
+        commit.countDown();
+        rebuild.get(10, TimeUnit.SECONDS);
+        recorded.get(10, TimeUnit.SECONDS);
+
+        performAsync(mockMvc, get("/sales/rollups/part/" + otherPart.getId()))
+                .andExpect(jsonPath("$.salesCount", is(1)))
+                .andExpect(jsonPath("$.revenue", is(10.0)));
+
+        performAsync(mockMvc, get("/sales/rollups/customer/" + customer.getId()))
+                .andExpect(jsonPath("$.salesCount", is(2)));
+    }
+
+    @Test
+    @WithMockUser
+    public void salesRollups_WithUnknownDimension_ShouldReturnNotFound() throws Exception {
+        performAsync(mockMvc, get("/sales/rollups/week"))
+                .andExpect(status().isNotFound());
+    }
+
+    private String export(String format, String contentType) throws Exception {
+        MvcResult result = mockMvc
+                .perform(get("/sales/export").param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType));
+
+        return result.getResponse().getContentAsString();
+    }
+}
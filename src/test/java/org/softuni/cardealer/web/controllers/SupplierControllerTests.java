@@ -1,9 +1,13 @@
 package org.softuni.cardealer.web.controllers;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.softuni.cardealer.CatalogueFixtures;
 import org.softuni.cardealer.domain.entities.Supplier;
+import org.softuni.cardealer.repository.CarRepository;
+import org.softuni.cardealer.repository.PartRepository;
 import org.softuni.cardealer.repository.SupplierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
@@ -14,8 +18,15 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.softuni.cardealer.AsyncRequests.performAsync;
+import static org.softuni.cardealer.SqlStatementMatchers.noRepeatedStatements;
+import static org.softuni.cardealer.SqlStatementMatchers.statementsAtMost;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
@@ -31,6 +42,20 @@ public class SupplierControllerTests {
     @Autowired
     private SupplierRepository supplierRepository;
 
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    private CatalogueFixtures fixtures;
+
+    @After
+    public void deleteFixtures() {
+        if (fixtures != null) {
+            fixtures.delete();
+        }
+    }
 
     private Supplier first;
     private Supplier second;
@@ -57,9 +82,12 @@ public class SupplierControllerTests {
     @Test
     @WithMockUser
     public void allSuppliers_ShouldReturnCorrectView() throws Exception {
-        mockMvc
-                .perform(get("/suppliers/all"))
-                .andExpect(view().name("all-suppliers"));
+        fixtures = CatalogueFixtures.seed(supplierRepository, partRepository, carRepository, 4, 3);
+        performAsync(mockMvc, get("/suppliers/all"))
+                .andExpect(view().name("all-suppliers"))
+                .andExpect(model().attribute("suppliers", hasSize((int) supplierRepository.count())))
+                .andExpect(statementsAtMost(1))
+                .andExpect(noRepeatedStatements());
     }
 
     @Test
@@ -149,8 +177,7 @@ public class SupplierControllerTests {
         supplierRepository.deleteAll();
         saveTheTwoSuppliersWithIds();
 
-        String actual = mockMvc
-                .perform(get("/suppliers/fetch/"))
+        String actual = performAsync(mockMvc, get("/suppliers/fetch/"))
                 .andExpect(status().isOk())
                 .andReturn()
                     .getResponse()
@@ -162,4 +189,68 @@ public class SupplierControllerTests {
         Assert.assertEquals(expected, actual);
     }
 
+    @Test
+    @WithMockUser
+    public void suggestSuppliers_ShouldReturnPrefixMatchesInNameOrder() throws Exception {
+        Supplier zeta = new Supplier();
+        zeta.setName("Zeta Motors");
+        zeta.setIsImporter(true);
+        zeta = supplierRepository.save(zeta);
+
+        Supplier zephyr = new Supplier();
+        zephyr.setName("Zephyr");
+        zephyr.setIsImporter(false);
+        zephyr = supplierRepository.save(zephyr);
+
+        Supplier zenith = new Supplier();
+        zenith.setName("zenith parts");
+        zenith.setIsImporter(false);
+        zenith = supplierRepository.save(zenith);
+
+        mockMvc
+                .perform(get("/suppliers/suggest").param("q", "ZE").param("limit", "2"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(zenith.getId())))
+                .andExpect(jsonPath("$[1].name", is("Zephyr")));
+
+        zephyr.setName("Alpha");
+        supplierRepository.save(zephyr);
+
+        mockMvc
+                .perform(get("/suppliers/suggest").param("q", "ze"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].name", is("Zeta Motors")));
+
+        supplierRepository.delete(zeta);
+
+        mockMvc
+                .perform(get("/suppliers/suggest").param("q", "zet"))
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        supplierRepository.delete(zephyr);
+        supplierRepository.delete(zenith);
+    }
+
+    @Test
+    @WithMockUser
+    public void suggestSuppliers_WithNamesDifferingInCase_ShouldReturnThemInNameOrder() throws Exception {
+        Supplier lower = new Supplier();
+        lower.setName("zulu parts");
+        lower.setIsImporter(false);
+        lower = supplierRepository.save(lower);
+
+        Supplier upper = new Supplier();
+        upper.setName("Zulu Parts");
+        upper.setIsImporter(true);
+        upper = supplierRepository.save(upper);
+
+        mockMvc
+                .perform(get("/suppliers/suggest").param("q", "zulu"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is("Zulu Parts")))
+                .andExpect(jsonPath("$[1].name", is("zulu parts")));
+
+        supplierRepository.delete(lower);
+        supplierRepository.delete(upper);
+    }
 }
@@ -4,15 +4,21 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.softuni.cardealer.domain.entities.User;
+import org.softuni.cardealer.domain.models.service.UserServiceModel;
 import org.softuni.cardealer.repository.UserRepository;
+import org.softuni.cardealer.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -30,6 +36,9 @@ public class UserControllerTests {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserService userService;
+
     @Test
     public void login_ReturnsCorrectView() throws Exception {
         mockMvc
@@ -71,4 +80,81 @@ public class UserControllerTests {
         Assert.assertEquals("Ivan", user.getUsername());
         Assert.assertEquals("ivan@domain.provider", user.getEmail());
     }
+
+    @Test
+    public void login_AfterUserIsDeleted_ShouldBeRejected() throws Exception {
+        saveUser("deletedUser", "secret");
+        mockMvc
+                .perform(formLogin("/users/login").user("deletedUser").password("secret"))
+                .andExpect(authenticated().withUsername("deletedUser"));
+
+        userRepository.delete(userRepository.findByUsername("deletedUser").orElseThrow());
+        mockMvc
+                .perform(formLogin("/users/login").user("deletedUser").password("secret"))
+                .andExpect(unauthenticated());
+    }
+
+    @Test
+    public void login_AfterUserIsDisabled_ShouldBeRejected() throws Exception {
+        saveUser("disabledUser", "secret");
+        mockMvc
+                .perform(formLogin("/users/login").user("disabledUser").password("secret"))
+                .andExpect(authenticated().withUsername("disabledUser"));
+
+        User user = userRepository.findByUsername("disabledUser").orElseThrow();
+        user.setEnabled(false);
+        userRepository.save(user);
+        mockMvc
+                .perform(formLogin("/users/login").user("disabledUser").password("secret"))
+                .andExpect(unauthenticated());
+
+        userRepository.delete(user);
+    }
+
+    @Test
+    public void login_AfterPasswordIsChanged_ShouldRejectOldPassword() throws Exception {
+        saveUser("changedUser", "secret");
+        mockMvc
+                .perform(formLogin("/users/login").user("changedUser").password("secret"))
+                .andExpect(authenticated().withUsername("changedUser"));
+
+        userService.updatePassword(userService.loadUserByUsername("changedUser"), new BCryptPasswordEncoder().encode("changed"));
+        mockMvc
+                .perform(formLogin("/users/login").user("changedUser").password("secret"))
+                .andExpect(unauthenticated());
+        mockMvc
+                .perform(formLogin("/users/login").user("changedUser").password("changed"))
+                .andExpect(authenticated().withUsername("changedUser"));
+
+        userRepository.delete(userRepository.findByUsername("changedUser").orElseThrow());
+    }
+
+    @Test
+    public void login_WithHashOfOtherWorkFactor_ShouldRehashPassword() throws Exception {
+        User user = new User();
+        user.setUsername("legacyUser");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        user.setEmail("legacyUser@domain.provider");
+        userRepository.saveAndFlush(user);
+
+        mockMvc
+                .perform(formLogin("/users/login").user("legacyUser").password("secret"))
+                .andExpect(authenticated().withUsername("legacyUser"));
+
+        User rehashed = userRepository.findByUsername("legacyUser").orElseThrow();
+        Assert.assertTrue(rehashed.getPassword().startsWith("$2a$10$"));
+        mockMvc
+                .perform(formLogin("/users/login").user("legacyUser").password("secret"))
+                .andExpect(authenticated().withUsername("legacyUser"));
+
+        userRepository.delete(rehashed);
+    }
+
+    private void saveUser(String username, String password) {
+        UserServiceModel user = new UserServiceModel();
+        user.setUsername(username);
+        user.setPassword(password);
+        user.setEmail(username + "@domain.provider");
+        userService.saveUser(user);
+    }
 }
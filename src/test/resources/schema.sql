@@ -0,0 +1,2 @@
+-- The tests run against H2, which accepts the MySQL statements the repositories issue in MySQL mode
+SET MODE MySQL;